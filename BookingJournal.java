@@ -0,0 +1,353 @@
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.CRC32;
+
+/**
+ * Append-only write-ahead journal for bookings and cancellations with
+ * group commit: concurrent append() calls are written together and share
+ * one fsync, and each caller returns as soon as its event is durable.
+ * Durable events are then applied to the database in batches on a
+ * background thread, and the file is truncated once everything in it has
+ * been applied. On startup, read() returns whatever a crash left behind.
+ *
+ * Record layout: int length, int CRC32, payload. A torn tail record
+ * (length or CRC mismatch) ends replay. A group whose write or fsync
+ * fails is cut off the file again, so nothing is written after torn
+ * bytes; if even that fails the journal refuses all further appends.
+ */
+public class BookingJournal implements AutoCloseable {
+
+    /** One journalled change. */
+    public static final class Event {
+        public static final byte BOOK = 'B';
+        public static final byte CANCEL = 'C';
+
+        public final byte kind;
+        public final int id;
+        public final int roomId;
+        public final long inDay;
+        public final long outDay;
+        public final double total;
+        public final String customer;
+        public final String roomType;
+
+        private Event(byte kind, int id, int roomId, long inDay, long outDay, double total,
+                      String customer, String roomType) {
+            this.kind = kind;
+            this.id = id;
+            this.roomId = roomId;
+            this.inDay = inDay;
+            this.outDay = outDay;
+            this.total = total;
+            this.customer = customer;
+            this.roomType = roomType;
+        }
+
+        public static Event book(int id, String customer, int roomId, String roomType,
+                                 long inDay, long outDay, double total) {
+            return new Event(BOOK, id, roomId, inDay, outDay, total, customer, roomType);
+        }
+
+        public static Event cancel(int id, int roomId) {
+            return new Event(CANCEL, id, roomId, 0, 0, 0, "", "");
+        }
+    }
+
+    /** Writes a batch of durable events to the database, in order. */
+    public interface Applier {
+        void apply(List<Event> batch) throws Exception;
+    }
+
+    private static final long TRUNCATE_AT = 16L << 20;     // bytes
+    private static final int MAX_GROUP = 4096;
+
+    private static final class Pending {
+        final Event event;
+        final CompletableFuture<Void> durable = new CompletableFuture<>();
+        Pending(Event event) { this.event = event; }
+    }
+
+    private final FileChannel channel;
+    private final Applier applier;
+    private final BlockingQueue<Pending> toWrite = new LinkedBlockingQueue<>();
+    private final BlockingQueue<List<Event>> toApply = new LinkedBlockingQueue<>();
+    private final AtomicLong written = new AtomicLong();     // events fsynced
+    private final AtomicLong applied = new AtomicLong();     // events in the DB
+    private final Thread writer;
+    private final Thread applyThread;
+    private volatile boolean closed;
+    private volatile boolean applyFailed;
+    private volatile IOException broken;                  // set when a failed group could not be cut off
+    private volatile CompletableFuture<Void> checkpoint;
+
+    public BookingJournal(Path file, Applier applier) throws IOException {
+        this.channel = FileChannel.open(file, StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+        this.applier = applier;
+        this.writer = new Thread(this::writeLoop, "journal-writer");
+        this.applyThread = new Thread(this::applyLoop, "journal-applier");
+        writer.setDaemon(true);
+        applyThread.setDaemon(true);
+        writer.start();
+        applyThread.start();
+    }
+
+    /** Blocks until {@code e} is fsynced to the journal. */
+    public void append(Event e) throws IOException {
+        if (closed) throw new IOException("Journal is closed");
+        if (broken != null) throw new IOException("Journal unusable: " + broken.getMessage(), broken);
+        Pending p = new Pending(e);
+        toWrite.add(p);
+        try {
+            p.durable.get();
+        } catch (InterruptedException ie) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted waiting for journal fsync", ie);
+        } catch (ExecutionException ee) {
+            throw new IOException("Journal write failed: " + ee.getCause().getMessage(), ee.getCause());
+        }
+    }
+
+    /* ---------- Group commit ---------- */
+    private void writeLoop() {
+        List<Pending> group = new ArrayList<>();
+        while (!closed || !toWrite.isEmpty()) {
+            try {
+                if (broken == null) maybeTruncate();      // between groups, busy or idle
+                Pending first = toWrite.poll(100, TimeUnit.MILLISECONDS);
+                if (first == null) continue;
+                group.add(first);
+                toWrite.drainTo(group, MAX_GROUP - 1);
+                if (broken != null) throw broken;
+
+                ByteArrayOutputStream buf = new ByteArrayOutputStream(group.size() * 64);
+                for (Pending p : group) buf.write(encode(p.event));
+                ByteBuffer bb = ByteBuffer.wrap(buf.toByteArray());
+                long start = channel.position();
+                try {
+                    while (bb.hasRemaining()) channel.write(bb);
+                    channel.force(false);                // one fsync for the whole group
+                } catch (IOException e) {
+                    cutOff(start, e);
+                    throw e;
+                }
+
+                List<Event> events = new ArrayList<>(group.size());
+                for (Pending p : group) events.add(p.event);
+                written.addAndGet(events.size());
+                toApply.add(events);
+                for (Pending p : group) p.durable.complete(null);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (IOException e) {
+                for (Pending p : group) p.durable.completeExceptionally(e);
+            } finally {
+                group.clear();
+            }
+        }
+    }
+
+    /**
+     * Drops whatever part of a failed group reached the file, so later
+     * groups are not written behind torn bytes and a group reported as
+     * failed is never replayed.
+     */
+    private void cutOff(long start, IOException cause) {
+        try {
+            channel.truncate(start);
+            channel.force(false);
+        } catch (IOException e) {
+            e.addSuppressed(cause);
+            broken = e;
+            System.out.println("Journal truncate error, refusing further writes: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Empties the file once it passes TRUNCATE_AT or a checkpoint is asked
+     * for. New groups wait meanwhile until the applier has caught up with
+     * everything written, so the file stays bounded under steady traffic.
+     */
+    private void maybeTruncate() throws InterruptedException {
+        CompletableFuture<Void> cp = checkpoint;
+        try {
+            if (cp == null && channel.size() <= TRUNCATE_AT) return;
+            synchronized (applied) {
+                while (!applyFailed && applied.get() < written.get()) applied.wait(10);
+            }
+            if (applyFailed) {                        // the file is all that has those events
+                if (cp != null) {
+                    checkpoint = null;
+                    cp.completeExceptionally(new IOException("Journal apply failed"));
+                }
+                return;
+            }
+            channel.truncate(0);
+            channel.force(true);
+            if (cp != null) {
+                checkpoint = null;
+                cp.complete(null);
+            }
+        } catch (IOException e) {
+            System.out.println("Journal truncate error: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Waits until every journalled event is in the database and the file is
+     * empty, so nothing can be replayed over later changes made directly to
+     * the tables. Returns false if that did not happen within the timeout.
+     */
+    public synchronized boolean checkpoint(long timeoutMillis) {
+        CompletableFuture<Void> cp = checkpoint;
+        if (cp == null) checkpoint = cp = new CompletableFuture<>();
+        try {
+            cp.get(timeoutMillis, TimeUnit.MILLISECONDS);
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        } catch (ExecutionException | TimeoutException e) {
+            return false;
+        }
+    }
+
+    /* ---------- Background apply ---------- */
+    private void applyLoop() {
+        List<Event> batch = new ArrayList<>();
+        List<List<Event>> groups = new ArrayList<>();
+        while (!closed || !toApply.isEmpty() || writer.isAlive()) {
+            try {
+                List<Event> first = toApply.poll(100, TimeUnit.MILLISECONDS);
+                if (first == null) continue;
+                groups.add(first);
+                toApply.drainTo(groups);
+                for (List<Event> g : groups) batch.addAll(g);
+                try {
+                    applier.apply(batch);
+                } catch (Exception e) {
+                    // keep the journal: the events are replayed on next startup
+                    applyFailed = true;
+                    System.out.println("Journal apply error: " + e.getMessage());
+                }
+                synchronized (applied) {
+                    applied.addAndGet(batch.size());
+                    applied.notifyAll();
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } finally {
+                batch.clear();
+                groups.clear();
+            }
+        }
+    }
+
+    /** Stops accepting events, then waits until everything queued is fsynced and applied. */
+    @Override
+    public void close() {
+        closed = true;
+        try {
+            writer.join();
+            for (Pending p; (p = toWrite.poll()) != null; )    // raced with close()
+                p.durable.completeExceptionally(new IOException("Journal is closed"));
+            applyThread.join();
+            if (!applyFailed) channel.truncate(0);
+            channel.force(true);
+            channel.close();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (IOException e) {
+            System.out.println("Journal close error: " + e.getMessage());
+        }
+    }
+
+    /* ---------- Encoding / replay ---------- */
+    private static byte[] encode(Event e) throws IOException {
+        ByteArrayOutputStream payload = new ByteArrayOutputStream(48);
+        try (DataOutputStream out = new DataOutputStream(payload)) {
+            out.writeByte(e.kind);
+            out.writeInt(e.id);
+            out.writeInt(e.roomId);
+            out.writeLong(e.inDay);
+            out.writeLong(e.outDay);
+            out.writeDouble(e.total);
+            out.writeUTF(e.customer == null ? "" : e.customer);
+            out.writeUTF(e.roomType == null ? "" : e.roomType);
+        }
+        byte[] body = payload.toByteArray();
+        CRC32 crc = new CRC32();
+        crc.update(body);
+        ByteBuffer rec = ByteBuffer.allocate(8 + body.length);
+        rec.putInt(body.length).putInt((int) crc.getValue()).put(body);
+        return rec.array();
+    }
+
+    /** Every intact event in {@code file}, oldest first; empty when the file does not exist. */
+    public static List<Event> read(Path file) throws IOException {
+        List<Event> events = new ArrayList<>();
+        if (!Files.exists(file)) return events;
+        try (DataInputStream in = new DataInputStream(
+                new BufferedInputStream(Files.newInputStream(file)))) {
+            while (true) {
+                int len, crcValue;
+                try {
+                    len = in.readInt();
+                    crcValue = in.readInt();
+                } catch (EOFException eof) {
+                    break;
+                }
+                if (len <= 0 || len > 1 << 20) break;
+                byte[] body = new byte[len];
+                try {
+                    in.readFully(body);
+                } catch (EOFException eof) {
+                    break;                               // torn final write
+                }
+                CRC32 crc = new CRC32();
+                crc.update(body);
+                if ((int) crc.getValue() != crcValue) break;
+
+                DataInputStream d = new DataInputStream(new ByteArrayInputStream(body));
+                byte kind = d.readByte();
+                int id = d.readInt(), roomId = d.readInt();
+                long inDay = d.readLong(), outDay = d.readLong();
+                double total = d.readDouble();
+                String customer = d.readUTF();
+                String roomType = d.available() > 0 ? d.readUTF() : "";   // older records have none
+                events.add(new Event(kind, id, roomId, inDay, outDay, total, customer, roomType));
+            }
+        }
+        return events;
+    }
+
+    /** Empties the journal file after a successful replay. */
+    public static void clear(Path file) throws IOException {
+        if (!Files.exists(file)) return;
+        try (FileChannel ch = FileChannel.open(file, StandardOpenOption.WRITE)) {
+            ch.truncate(0);
+            ch.force(true);
+        }
+    }
+}
@@ -0,0 +1,18 @@
+import java.util.List;
+
+/** One keyset page of bookings; pass getNextAfterId() back to fetch the next page. */
+public class BookingPage {
+    private final List<Reservation> rows;
+    private final int nextAfterId;
+    private final boolean hasMore;
+
+    public BookingPage(List<Reservation> rows, int nextAfterId, boolean hasMore) {
+        this.rows = rows;
+        this.nextAfterId = nextAfterId;
+        this.hasMore = hasMore;
+    }
+
+    public List<Reservation> getRows() { return rows; }
+    public int getNextAfterId()        { return nextAfterId; }
+    public boolean hasMore()           { return hasMore; }
+}
@@ -0,0 +1,21 @@
+import java.time.LocalDate;
+
+/** Filter for booking listings; unset fields match everything. */
+public class BookingQuery {
+    private String status;          // booked | cancelled
+    private Integer roomId;
+    private LocalDate from;         // stays overlapping [from, to)
+    private LocalDate to;
+
+    public static BookingQuery all() { return new BookingQuery(); }
+
+    public BookingQuery status(String status)  { this.status = status; return this; }
+    public BookingQuery room(Integer roomId)   { this.roomId = roomId; return this; }
+    public BookingQuery from(LocalDate from)   { this.from = from; return this; }
+    public BookingQuery to(LocalDate to)       { this.to = to; return this; }
+
+    public String getStatus()  { return status; }
+    public Integer getRoomId() { return roomId; }
+    public LocalDate getFrom() { return from; }
+    public LocalDate getTo()   { return to; }
+}
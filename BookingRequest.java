@@ -0,0 +1,21 @@
+import java.time.LocalDate;
+
+/** One booking to be placed, e.g. a row of a bulk import. */
+public class BookingRequest {
+    private final String customerName;
+    private final int roomId;
+    private final LocalDate checkin;
+    private final LocalDate checkout;
+
+    public BookingRequest(String customerName, int roomId, LocalDate checkin, LocalDate checkout) {
+        this.customerName = customerName;
+        this.roomId = roomId;
+        this.checkin = checkin;
+        this.checkout = checkout;
+    }
+
+    public String getCustomerName() { return customerName; }
+    public int getRoomId()          { return roomId; }
+    public LocalDate getCheckin()   { return checkin; }
+    public LocalDate getCheckout()  { return checkout; }
+}
@@ -0,0 +1,35 @@
+/**
+ * Outcome of one booking request: the reservation if accepted, the reason
+ * if not. A failed request (isError) was valid but the database or journal
+ * could not take it.
+ */
+public class BookingResult {
+    private final int row;
+    private final Reservation reservation;
+    private final String reason;
+    private final boolean error;
+
+    private BookingResult(int row, Reservation reservation, String reason, boolean error) {
+        this.row = row;
+        this.reservation = reservation;
+        this.reason = reason;
+        this.error = error;
+    }
+
+    public static BookingResult accepted(int row, Reservation r) { return new BookingResult(row, r, null, false); }
+    public static BookingResult rejected(int row, String reason) { return new BookingResult(row, null, reason, false); }
+    public static BookingResult failed(int row, String reason)   { return new BookingResult(row, null, reason, true); }
+
+    public int getRow()                 { return row; }
+    public boolean isAccepted()         { return reservation != null; }
+    public boolean isError()            { return error; }
+    public Reservation getReservation() { return reservation; }
+    public String getReason()           { return reason; }
+
+    @Override
+    public String toString() {
+        return "Row " + row + ": " + (isAccepted()
+                ? "accepted as reservation " + reservation.getId()
+                : (error ? "failed (" : "rejected (") + reason + ")");
+    }
+}
@@ -0,0 +1,23 @@
+import java.util.List;
+import java.util.Map;
+
+/**
+ * One page of bookings merged across a chain's properties. Each property
+ * keeps its own keyset cursor; pass getNextAfterIds() back to fetch the
+ * next page.
+ */
+public class ChainBookingPage {
+    private final List<PropertyBooking> rows;
+    private final Map<String, Integer> nextAfterIds;
+    private final boolean hasMore;
+
+    public ChainBookingPage(List<PropertyBooking> rows, Map<String, Integer> nextAfterIds, boolean hasMore) {
+        this.rows = rows;
+        this.nextAfterIds = nextAfterIds;
+        this.hasMore = hasMore;
+    }
+
+    public List<PropertyBooking> getRows()         { return rows; }
+    public Map<String, Integer> getNextAfterIds()  { return nextAfterIds; }
+    public boolean hasMore()                       { return hasMore; }
+}
@@ -0,0 +1,132 @@
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+/**
+ * Fixed-size pool of SQLite connections. Each pooled connection keeps its
+ * own prepared-statement cache, so hot SQL is parsed once per connection
+ * instead of on every call. When given a Metrics instance, every execute
+ * call on a cached statement is timed under its SQL text.
+ */
+public class ConnectionPool implements AutoCloseable {
+
+    private final List<PooledConnection> all = new ArrayList<>();
+    private final BlockingQueue<PooledConnection> idle;
+    private final Metrics metrics;
+
+    public ConnectionPool(String url, int size, Metrics metrics) {
+        this.metrics = metrics;
+        idle = new ArrayBlockingQueue<>(size);
+        for (int i = 0; i < size; i++) {
+            Connection c = DBConnection.connect(url);
+            if (c == null) break;
+            PooledConnection pc = new PooledConnection(c);
+            all.add(pc);
+            idle.add(pc);
+        }
+    }
+
+    /** Borrows a connection, waiting if all are in use. Close it to give it back. */
+    public PooledConnection acquire() throws SQLException {
+        if (all.isEmpty()) throw new SQLException("No database connections available");
+        try {
+            return idle.take();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLException("Interrupted while waiting for a connection", e);
+        }
+    }
+
+    @Override
+    public void close() {
+        for (PooledConnection pc : all) pc.closeQuietly();
+    }
+
+    /** A borrowed connection; close() returns it to the pool. */
+    public final class PooledConnection implements AutoCloseable {
+        private final Connection conn;
+        private final Map<String, PreparedStatement> cache = new HashMap<>();
+
+        private PooledConnection(Connection conn) { this.conn = conn; }
+
+        public Connection raw() { return conn; }
+
+        /** Cached statement for this connection. Do not close it; close its ResultSets. */
+        public PreparedStatement prepare(String sql) throws SQLException {
+            PreparedStatement ps = cache.get(sql);
+            if (ps == null) {
+                ps = timed(sql, conn.prepareStatement(sql));
+                cache.put(sql, ps);
+            }
+            return ps;
+        }
+
+        /** Like prepare(), but the statement returns generated keys. */
+        public PreparedStatement prepareWithKeys(String sql) throws SQLException {
+            String key = "#keys#" + sql;
+            PreparedStatement ps = cache.get(key);
+            if (ps == null) {
+                ps = timed(sql, conn.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS));
+                cache.put(key, ps);
+            }
+            return ps;
+        }
+
+        private PreparedStatement timed(String sql, PreparedStatement target) {
+            if (metrics == null) return target;
+            return (PreparedStatement) Proxy.newProxyInstance(
+                    PreparedStatement.class.getClassLoader(),
+                    new Class<?>[] { PreparedStatement.class },
+                    (proxy, method, args) -> {
+                        if (!method.getName().startsWith("execute")) return invoke(method, target, args);
+                        long t0 = System.nanoTime();
+                        try {
+                            Object result = invoke(method, target, args);
+                            metrics.recordSql(sql, t0, null);
+                            return result;
+                        } catch (Throwable t) {
+                            metrics.recordSql(sql, t0, t);
+                            throw t;
+                        }
+                    });
+        }
+
+        private Object invoke(Method m, Object target, Object[] args) throws Throwable {
+            try {
+                return m.invoke(target, args);
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+        }
+
+        @Override
+        public void close() {
+            try {
+                if (!conn.getAutoCommit()) {
+                    conn.rollback();            // caller left a transaction open
+                    conn.setAutoCommit(true);
+                }
+            } catch (SQLException e) {
+                System.out.println("Connection reset error: " + e.getMessage());
+            }
+            idle.offer(this);
+        }
+
+        private void closeQuietly() {
+            try {
+                for (PreparedStatement ps : cache.values()) ps.close();
+                conn.close();
+            } catch (SQLException ignored) { }
+        }
+    }
+}
@@ -1,16 +1,41 @@
 import java.sql.Connection;
 import java.sql.DriverManager;
 import java.sql.SQLException;
+import java.sql.Statement;
 
 public class DBConnection {
+    public static final String URL = "jdbc:sqlite:hotel.db";
+    private static final int POOL_SIZE =
+            Math.max(4, Runtime.getRuntime().availableProcessors());
+
+    /** Database of one property in a multi-property chain: hotel-<id>.db. */
+    public static String urlFor(String propertyId) {
+        if (!propertyId.matches("[A-Za-z0-9_-]+"))
+            throw new IllegalArgumentException("Property id must be letters, digits, '_' or '-': " + propertyId);
+        return "jdbc:sqlite:hotel-" + propertyId + ".db";
+    }
+
     public static Connection connect() {
+        return connect(URL);
+    }
+
+    public static Connection connect(String url) {
         try {
             Class.forName("org.sqlite.JDBC");                 // load driver
-            return DriverManager.getConnection("jdbc:sqlite:hotel.db");
+            Connection c = DriverManager.getConnection(url);
+            try (Statement st = c.createStatement()) {
+                st.execute("PRAGMA journal_mode=WAL");        // readers don't block the writer
+                st.execute("PRAGMA synchronous=NORMAL");      // fsync on checkpoint, not every commit
+                st.execute("PRAGMA busy_timeout=5000");       // wait for the write lock instead of failing
+            }
+            return c;
         } catch (ClassNotFoundException | SQLException e) {
             System.out.println("DB Connection Failed: " + e.getMessage());
             return null;
         }
     }
-}
 
+    public static ConnectionPool pool(String url, Metrics metrics) {
+        return new ConnectionPool(url, POOL_SIZE, metrics);
+    }
+}
@@ -0,0 +1,2 @@
+/** File formats for Hotel.exportBookings. */
+public enum ExportFormat { CSV, NDJSON }
@@ -1,91 +1,472 @@
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.io.Writer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
 import java.sql.*;
 import java.time.LocalDate;
 import java.time.format.DateTimeFormatter;
 import java.time.temporal.ChronoUnit;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
 
-public class Hotel {
+public class Hotel implements AutoCloseable {
 
-    private final Connection conn = DBConnection.connect();
+    private final ConnectionPool pool;
+    private final Metrics metrics = new Metrics();
+    private final RoomCatalog catalog = new RoomCatalog(new RoomCatalog.Loader() {
+        public Room load(int roomId) throws SQLException { return loadRoom(roomId); }
+        public List<Room> loadAll() throws SQLException { return loadAllRooms(); }
+    }, 10_000);
+    private final RoomIntervalIndex index = new RoomIntervalIndex();
+    private final OccupancyReport report = new OccupancyReport();
+    // nights from a month ago to two years ahead, for "any free room" searches;
+    // rolled forward as days pass so a long-running server keeps the window
+    private static final int CALENDAR_PAST_DAYS = 30;
+    private final OccupancyCalendar calendar = new OccupancyCalendar(
+            LocalDate.now().minusDays(CALENDAR_PAST_DAYS), CALENDAR_PAST_DAYS + 2 * 366);
+    // bookings on different rooms proceed in parallel; same-room ones queue up
+    private final ReentrantLock[] roomLocks = new ReentrantLock[64];
+    // optional group-commit journal; when set, writes are acked once journalled
+    private final BookingJournal journal;
+    private final AtomicInteger nextId = new AtomicInteger();
+    // cold store for cancelled and checked-out bookings, next to the hot DB
+    private final ReservationArchive archive;
+    // optional startup snapshot of rooms, stays and report totals
+    private final Path snapshotFile;
+    private final AtomicBoolean closed = new AtomicBoolean();
+    // held while open: the index is the overlap check, so one process per file
+    private final FileChannel ownerLock;
+    private final Path ownerLockFile;
+    // lock files held in this JVM; a second channel on one must never be
+    // opened, since closing it would drop the process-wide lock
+    private static final Set<Path> LOCKED = ConcurrentHashMap.newKeySet();
     private static final DateTimeFormatter USER_FMT =
             DateTimeFormatter.ofPattern("dd-MM-yyyy");
 
     public Hotel() {
-        createTablesIfMissing();
-        insertDefaultRoomsIfEmpty();
-        addColumnsIfMissing();
+        this(DBConnection.URL);
+    }
+
+    public Hotel(String dbUrl) {
+        this(dbUrl, null);
+    }
+
+    /**
+     * With a {@code journalFile}, bookings and cancellations are acknowledged
+     * once fsynced to the journal and reach the tables shortly after, in
+     * batches. Anything a crash left in the journal is replayed first.
+     */
+    public Hotel(String dbUrl, Path journalFile) {
+        this(dbUrl, journalFile, null);
+    }
+
+    /**
+     * With a {@code snapshotFile}, in-memory state is saved there on close()
+     * and read back on the next start instead of scanning the tables, as
+     * long as nothing else opened the database in between.
+     */
+    public Hotel(String dbUrl, Path journalFile, Path snapshotFile) {
+        ownerLockFile = lockFileFor(dbUrl);
+        ownerLock = lockDatabase(ownerLockFile);
+        pool = DBConnection.pool(dbUrl, metrics);
+        for (int i = 0; i < roomLocks.length; i++) roomLocks[i] = new ReentrantLock();
+        migrateSchema();
+        try {
+            journal = journalFile == null ? null : openJournal(journalFile);
+        } catch (RuntimeException e) {
+            releaseOwnership();
+            throw e;
+        }
+        try {
+            archive = openArchive(ReservationArchive.urlFor(dbUrl));
+        } catch (RuntimeException e) {
+            if (journal != null) journal.close();
+            releaseOwnership();
+            throw e;
+        }
+        this.snapshotFile = snapshotFile;
+        if (!loadSnapshot()) {
+            loadRooms();
+            loadIndex();
+        }
+        warnClashes();
+    }
+
+    public Metrics metrics() { return metrics; }
+
+    /** Flushes and releases everything; later calls do nothing. */
+    @Override
+    public void close() {
+        if (!closed.compareAndSet(false, true)) return;
+        metrics.close();
+        if (journal != null) journal.close();          // drains into the DB first
+        saveSnapshot();
+        archive.close();
+        releaseOwnership();
+    }
+
+    /** Closes the pool, then gives up the database lock. */
+    private void releaseOwnership() {
+        pool.close();
+        if (ownerLock != null) {
+            try { ownerLock.close(); } catch (IOException ignored) { }     // releases the lock
+            LOCKED.remove(ownerLockFile);
+        }
     }
 
     /* ---------- DB bootstrap ---------- */
-    private void createTablesIfMissing() {
-        try (Statement st = conn.createStatement()) {
-            st.execute("""
-                CREATE TABLE IF NOT EXISTS rooms (
-                    room_id INTEGER PRIMARY KEY AUTOINCREMENT,
-                    type TEXT,
-                    price REAL,
-                    is_available INTEGER DEFAULT 1
-                );
-            """);
-            st.execute("""
-                CREATE TABLE IF NOT EXISTS reservations (
-                    id INTEGER PRIMARY KEY AUTOINCREMENT,
-                    customer_name TEXT,
-                    room_id INTEGER,
-                    payment_status TEXT
-                );
-            """);
+    private void migrateSchema() {
+        try (ConnectionPool.PooledConnection c = pool.acquire()) {
+            int applied = SchemaMigrations.migrate(c.raw());
+            if (applied > 0) System.out.println("Applied " + applied + " schema migration(s).");
+        } catch (SQLException e) {
+            System.out.println("Schema migration error: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Takes an exclusive lock on <db file>.lock for as long as this Hotel is
+     * open. Bookings are checked against the in-memory index, which only
+     * sees this process's writes, so a second process on the same file
+     * could double-book; it fails here instead. Null for in-memory URLs.
+     */
+    private static FileChannel lockDatabase(Path lockFile) {
+        if (lockFile == null) return null;
+        if (!LOCKED.add(lockFile))
+            throw new IllegalStateException(lockFile + " is held by another open Hotel");
+        FileChannel ch = null;
+        try {
+            ch = FileChannel.open(lockFile, StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+            if (ch.tryLock() != null) return ch;                // the channel holds the lock until closed
+            ch.close();
+        } catch (IOException e) {
+            if (ch != null) try { ch.close(); } catch (IOException ignored) { }
+            LOCKED.remove(lockFile);
+            throw new IllegalStateException("Cannot lock " + lockFile + ": " + e.getMessage(), e);
+        }
+        LOCKED.remove(lockFile);
+        throw new IllegalStateException(lockFile + " is held by another process");
+    }
+
+    private static Path lockFileFor(String url) {
+        String file = url.startsWith("jdbc:sqlite:") ? url.substring("jdbc:sqlite:".length()) : url;
+        if (file.isEmpty() || file.startsWith(":memory:") || file.startsWith("file:")) return null;
+        return Path.of(file + ".lock").toAbsolutePath().normalize();
+    }
+
+    private static ReservationArchive openArchive(String url) {
+        try {
+            return new ReservationArchive(url);
         } catch (SQLException e) {
-            System.out.println("Create table error: " + e.getMessage());
+            throw new IllegalStateException("Cannot open reservation archive " + url + ": " + e.getMessage(), e);
         }
     }
 
-    private void insertDefaultRoomsIfEmpty() {
-        try (Statement st = conn.createStatement();
-             ResultSet rs = st.executeQuery("SELECT COUNT(*) AS n FROM rooms")) {
-            if (rs.next() && rs.getInt("n") == 0) {
-                st.executeUpdate("""
-                    INSERT INTO rooms (type, price, is_available) VALUES
-                    ('Standard',1000,1), ('Deluxe',2000,1), ('Suite',3000,1);
-                """);
+    /* ---------- Startup snapshot ---------- */
+    private static final String SNAPSHOT_TOKEN = "snapshot_token";
+
+    /**
+     * Reads and clears the token of the last snapshot. Clearing it on every
+     * start means any snapshot older than this process no longer matches.
+     */
+    private String takeSnapshotToken() {
+        try (ConnectionPool.PooledConnection c = pool.acquire()) {
+            PreparedStatement p = c.prepare("SELECT value FROM hotel_meta WHERE key=?");
+            p.setString(1, SNAPSHOT_TOKEN);
+            String token;
+            try (ResultSet rs = p.executeQuery()) {
+                token = rs.next() ? rs.getString("value") : null;
+            }
+            if (token != null) {
+                PreparedStatement del = c.prepare("DELETE FROM hotel_meta WHERE key=?");
+                del.setString(1, SNAPSHOT_TOKEN);
+                del.executeUpdate();
             }
+            return token;
         } catch (SQLException e) {
-            System.out.println("Insert rooms error: " + e.getMessage());
+            System.out.println("Snapshot token error: " + e.getMessage());
+            return null;
         }
     }
 
-    private void addColumnsIfMissing() {
-        String[] alter = {
-            "ALTER TABLE reservations ADD COLUMN status TEXT DEFAULT 'booked'",
-            "ALTER TABLE reservations ADD COLUMN checkin_date TEXT",
-            "ALTER TABLE reservations ADD COLUMN checkout_date TEXT",
-            "ALTER TABLE reservations ADD COLUMN total_cost REAL"
-        };
-        for (String sql : alter) {
-            try (Statement st = conn.createStatement()) {
-                st.execute(sql);
-            } catch (SQLException e) {
-                if (!e.getMessage().toLowerCase().contains("duplicate column"))
-                    System.out.println("Add column error: " + e.getMessage());
+    /** Fills catalog, index, calendar and report from the snapshot if it matches. */
+    private boolean loadSnapshot() {
+        String token = takeSnapshotToken();
+        if (snapshotFile == null || token == null) return false;
+        List<Room> rooms = new ArrayList<>();
+        try {
+            boolean ok = HotelSnapshot.read(snapshotFile, Long.parseLong(token), new HotelSnapshot.Sink() {
+                public void room(Room room) {
+                    rooms.add(room);
+                    calendar.addRoom(room);
+                }
+                public void stay(int id, int roomId, long inDay, long outDay, double total, String type) {
+                    index.add(id, roomId, inDay, outDay, total, type);
+                    calendar.book(roomId, inDay, outDay);
+                }
+                public void cell(long day, String type, long nights, double revenue) {
+                    report.restore(day, type, nights, revenue);
+                }
+            });
+            if (ok) catalog.prime(rooms);
+            return ok;
+        } catch (IOException | NumberFormatException e) {
+            System.out.println("Snapshot load error: " + e.getMessage());
+            return false;
+        }
+    }
+
+    /** Writes the snapshot, then records its token; a crash in between just means a cold start. */
+    private void saveSnapshot() {
+        if (snapshotFile == null) return;
+        long token = ThreadLocalRandom.current().nextLong();
+        try {
+            HotelSnapshot.write(snapshotFile, token, catalog.all(), index.all(), report);
+            try (ConnectionPool.PooledConnection c = pool.acquire()) {
+                PreparedStatement p = c.prepare("INSERT OR REPLACE INTO hotel_meta (key, value) VALUES (?, ?)");
+                p.setString(1, SNAPSHOT_TOKEN);
+                p.setString(2, Long.toString(token));
+                p.executeUpdate();
             }
+        } catch (IOException | SQLException e) {
+            System.out.println("Snapshot save error: " + e.getMessage());
         }
     }
 
-    /* ---------- Helpers ---------- */
-    private boolean overlaps(int roomId, LocalDate in, LocalDate out) throws SQLException {
+    /* ---------- Write-ahead journal ---------- */
+    private BookingJournal openJournal(Path file) {
+        try {
+            List<BookingJournal.Event> pending = BookingJournal.read(file);
+            if (!pending.isEmpty()) {
+                applyJournal(pending);
+                System.out.println("Replayed " + pending.size() + " journalled changes.");
+            }
+            BookingJournal.clear(file);
+            nextId.set(maxReservationId());
+            return new BookingJournal(file, this::applyJournal);
+        } catch (IOException | SQLException e) {
+            throw new IllegalStateException("Cannot open booking journal " + file + ": " + e.getMessage(), e);
+        }
+    }
+
+    /** Highest id ever handed out, including rows no longer in the table. */
+    private int maxReservationId() throws SQLException {
         String q = """
-            SELECT 1 FROM reservations
-            WHERE room_id=? AND status='booked'
-              AND NOT(date(checkout_date)<=date(?) OR date(checkin_date)>=date(?))
+            SELECT MAX(COALESCE((SELECT MAX(id) FROM reservations), 0),
+                       COALESCE((SELECT seq FROM sqlite_sequence WHERE name='reservations'), 0))
+        """;
+        try (ConnectionPool.PooledConnection c = pool.acquire();
+             ResultSet rs = c.prepare(q).executeQuery()) {
+            return rs.next() ? rs.getInt(1) : 0;
+        }
+    }
+
+    /** Writes journalled events in one transaction; safe to repeat after a crash. */
+    private void applyJournal(List<BookingJournal.Event> events) throws SQLException {
+        long t0 = System.nanoTime();
+        String ins = """
+            INSERT OR IGNORE INTO reservations
+            (id, customer_name, room_id, payment_status, status,
+             checkin_date, checkout_date, checkin_day, checkout_day, total_cost, room_type)
+            VALUES (?, ?, ?, 'Paid', 'booked', ?, ?, ?, ?, ?,
+                    COALESCE(NULLIF(?, ''), (SELECT type FROM rooms WHERE room_id = ?)))
         """;
-        try (PreparedStatement ps = conn.prepareStatement(q)) {
-            ps.setInt(1, roomId);
-            ps.setString(2, in.toString());
-            ps.setString(3, out.toString());
-            return ps.executeQuery().next();
+        try (ConnectionPool.PooledConnection c = pool.acquire()) {
+            c.raw().setAutoCommit(false);
+            PreparedStatement book = c.prepare(ins);
+            PreparedStatement cancel = c.prepare("UPDATE reservations SET status='cancelled' WHERE id=?");
+            Map<Integer, Boolean> roomFree = new LinkedHashMap<>();   // last write per room wins
+            for (BookingJournal.Event e : events) {
+                if (e.kind == BookingJournal.Event.BOOK) {
+                    book.setInt(1, e.id);
+                    book.setString(2, e.customer);
+                    book.setInt(3, e.roomId);
+                    book.setString(4, LocalDate.ofEpochDay(e.inDay).toString());
+                    book.setString(5, LocalDate.ofEpochDay(e.outDay).toString());
+                    book.setLong(6, e.inDay);
+                    book.setLong(7, e.outDay);
+                    book.setDouble(8, e.total);
+                    book.setString(9, e.roomType);
+                    book.setInt(10, e.roomId);
+                    book.addBatch();
+                    roomFree.put(e.roomId, false);
+                } else {
+                    cancel.setInt(1, e.id);
+                    cancel.addBatch();
+                    roomFree.put(e.roomId, true);
+                }
+            }
+            book.executeBatch();                  // a cancel always follows its booking
+            cancel.executeBatch();
+            PreparedStatement flag = c.prepare("UPDATE rooms SET is_available=? WHERE room_id=?");
+            for (Map.Entry<Integer, Boolean> f : roomFree.entrySet()) {
+                flag.setInt(1, f.getValue() ? 1 : 0);
+                flag.setInt(2, f.getKey());
+                flag.addBatch();
+            }
+            flag.executeBatch();
+            c.raw().commit();
+            c.raw().setAutoCommit(true);
+            metrics.record("journal_apply", t0, Metrics.Outcome.SUCCESS);
+        } catch (SQLException e) {
+            metrics.record("journal_apply", t0, Metrics.Outcome.ERROR);
+            throw e;
+        }
+    }
+
+    private void loadRooms() {
+        try {
+            for (Room r : catalog.all()) calendar.addRoom(r);
+        } catch (SQLException e) {
+            System.out.println("Load rooms error: " + e.getMessage());
         }
     }
 
+    /* ---------- Room catalog loaders ---------- */
+    private static Room toRoom(ResultSet rs) throws SQLException {
+        return new Room(rs.getInt("room_id"), rs.getString("type"),
+                        rs.getDouble("price"), rs.getInt("is_available") == 1);
+    }
+
+    private Room loadRoom(int roomId) throws SQLException {
+        try (ConnectionPool.PooledConnection c = pool.acquire()) {
+            PreparedStatement p = c.prepare("SELECT room_id, type, price, is_available FROM rooms WHERE room_id=?");
+            p.setInt(1, roomId);
+            try (ResultSet rs = p.executeQuery()) {
+                return rs.next() ? toRoom(rs) : null;
+            }
+        }
+    }
+
+    private List<Room> loadAllRooms() throws SQLException {
+        List<Room> list = new ArrayList<>();
+        String q = "SELECT room_id, type, price, is_available FROM rooms ORDER BY room_id";
+        try (ConnectionPool.PooledConnection c = pool.acquire();
+             ResultSet rs = c.prepare(q).executeQuery()) {
+            while (rs.next()) list.add(toRoom(rs));
+        }
+        return list;
+    }
+
+    /** Loads booked stays into the index and calendar, then backfills the report in parallel. */
+    private void loadIndex() {
+        // rows without a night (older data) hold nothing and cannot be indexed
+        String q = """
+            SELECT id, room_id, checkin_day, checkout_day, total_cost, room_type FROM reservations
+            WHERE status='booked' AND checkin_day IS NOT NULL AND checkout_day > checkin_day
+        """;
+        try (ConnectionPool.PooledConnection c = pool.acquire();
+             Statement st = c.raw().createStatement();
+             ResultSet rs = st.executeQuery(q)) {
+            while (rs.next()) {
+                int roomId = rs.getInt("room_id");
+                long inDay = rs.getLong("checkin_day"), outDay = rs.getLong("checkout_day");
+                index.add(rs.getInt("id"), roomId, inDay, outDay, rs.getDouble("total_cost"),
+                          rs.getString("room_type"));
+                calendar.book(roomId, inDay, outDay);
+            }
+        } catch (SQLException e) {
+            System.out.println("Load index error: " + e.getMessage());
+        }
+        backfillReport();
+    }
+
+    /** Names rooms whose stored stays overlap, which only older data can contain. */
+    private void warnClashes() {
+        Set<Integer> rooms = index.clashingRooms();
+        if (!rooms.isEmpty())
+            System.out.println("Warning: overlapping booked stays on room(s) " + new TreeSet<>(rooms)
+                    + "; all of them are kept and checked on new bookings.");
+    }
+
+    private void backfillReport() {
+        List<RoomIntervalIndex.Stay> stays = new ArrayList<>(index.all());
+        // archived past stays still count towards occupancy and revenue
+        List<RoomIntervalIndex.Stay> cold = new ArrayList<>();
+        try {
+            archive.forEach(r -> {
+                if (!"booked".equals(r.getStatus())) return;
+                try {
+                    long in = LocalDate.parse(r.getCheckinDate()).toEpochDay();
+                    long out = LocalDate.parse(r.getCheckoutDate()).toEpochDay();
+                    cold.add(new RoomIntervalIndex.Stay(r.getId(), r.getRoomId(), in, out,
+                                                        r.getTotalCost(), r.getRoomType()));
+                } catch (RuntimeException ignored) { }     // undated legacy row
+            });
+            // an archive() whose hot delete never committed leaves rows in both stores
+            Set<Integer> hot = hotIdsUpTo(cold.stream().mapToInt(st -> st.id).max().orElse(0));
+            for (RoomIntervalIndex.Stay st : cold)
+                if (!hot.contains(st.id)) stays.add(st);
+        } catch (SQLException e) {
+            System.out.println("Load archive error: " + e.getMessage());
+        }
+        int n = stays.size();
+        String[] types = new String[n];
+        long[] ins = new long[n], outs = new long[n];
+        double[] totals = new double[n];
+        for (int i = 0; i < n; i++) {
+            RoomIntervalIndex.Stay st = stays.get(i);
+            types[i] = st.type != null ? st.type : typeOf(st.roomId);   // rows from before room_type
+            ins[i] = st.inDay;
+            outs[i] = st.outDay;
+            totals[i] = st.total;
+        }
+        report.backfill(types, ins, outs, totals);
+    }
+
+    private Set<Integer> hotIdsUpTo(int maxId) throws SQLException {
+        Set<Integer> ids = new HashSet<>();
+        if (maxId <= 0) return ids;
+        try (ConnectionPool.PooledConnection c = pool.acquire()) {
+            PreparedStatement p = c.prepare("SELECT id FROM reservations WHERE id <= ?");
+            p.setInt(1, maxId);
+            try (ResultSet rs = p.executeQuery()) {
+                while (rs.next()) ids.add(rs.getInt(1));
+            }
+        }
+        return ids;
+    }
+
+    private String typeOf(int roomId) {
+        Room room = getRoom(roomId);
+        return room == null ? null : room.getType();
+    }
+
+    /** Records a new booked stay, of a room that was {@code type} at booking, in every in-memory structure. */
+    private void track(int id, int roomId, String type, long inDay, long outDay, double total) {
+        index.add(id, roomId, inDay, outDay, total, type);
+        calendar.book(roomId, inDay, outDay);
+        if (type != null) report.add(type, inDay, outDay, total);
+    }
+
+    /** Reverses track() for a cancelled stay, against the type it was booked under. */
+    private void untrack(int id) {
+        RoomIntervalIndex.Stay st = index.remove(id);
+        if (st == null) return;
+        calendar.release(st.roomId, st.inDay, st.outDay);
+        if (st.type != null) report.remove(st.type, st.inDay, st.outDay, st.total);
+    }
+
+    /* ---------- Helpers ---------- */
+    // package-private so HotelBenchmark can time it directly
+    boolean overlaps(int roomId, LocalDate in, LocalDate out) {
+        return index.overlaps(roomId, in, out);
+    }
+
+    private ReentrantLock lockFor(int roomId) {
+        return roomLocks[Math.floorMod(roomId, roomLocks.length)];
+    }
+
     private double nightsCost(double daily, LocalDate in, LocalDate out) {
         return ChronoUnit.DAYS.between(in, out) * daily;
     }
@@ -93,15 +474,68 @@ public class Hotel {
     private String fmt(LocalDate d) { return d.format(USER_FMT); }
 
     private String fmt(String yyyyMMdd) {
+        // stored dates are ISO, so reorder the fields rather than parse them
+        if (yyyyMMdd != null && yyyyMMdd.length() == 10
+                && yyyyMMdd.charAt(4) == '-' && yyyyMMdd.charAt(7) == '-')
+            return yyyyMMdd.substring(8) + "-" + yyyyMMdd.substring(5, 7) + "-" + yyyyMMdd.substring(0, 4);
         try { return fmt(LocalDate.parse(yyyyMMdd)); }
         catch (Exception e) { return yyyyMMdd; }
     }
 
+    /* ---------- Room admin ---------- */
+    /** Adds a room and returns it, or null on error. */
+    public Room addRoom(String type, double price) {
+        try (ConnectionPool.PooledConnection c = pool.acquire()) {
+            PreparedStatement p = c.prepareWithKeys("INSERT INTO rooms (type, price, is_available) VALUES (?, ?, 1)");
+            p.setString(1, type);
+            p.setDouble(2, price);
+            p.executeUpdate();
+            try (ResultSet keys = p.getGeneratedKeys()) {
+                if (!keys.next()) return null;
+                Room room = new Room(keys.getInt(1), type, price, true);
+                catalog.invalidate(room.getRoomId());
+                calendar.addRoom(room);
+                return room;
+            }
+        } catch (SQLException e) {
+            System.out.println("Add room error: " + e.getMessage());
+            return null;
+        }
+    }
+
+    /** Changes a room's type and price; existing bookings keep their cost. */
+    public boolean updateRoom(int roomId, String type, double price) {
+        try (ConnectionPool.PooledConnection c = pool.acquire()) {
+            PreparedStatement p = c.prepare("UPDATE rooms SET type=?, price=? WHERE room_id=?");
+            p.setString(1, type);
+            p.setDouble(2, price);
+            p.setInt(3, roomId);
+            if (p.executeUpdate() == 0) return false;
+        } catch (SQLException e) {
+            System.out.println("Update room error: " + e.getMessage());
+            return false;
+        }
+        catalog.invalidate(roomId);
+        Room room = getRoom(roomId);              // reloads with the connection back in the pool
+        if (room != null) calendar.addRoom(room);
+        return true;
+    }
+
+    /** The room with this id from the catalog, or null if there is none. */
+    public Room getRoom(int roomId) {
+        try {
+            return catalog.get(roomId);
+        } catch (SQLException e) {
+            System.out.println("Fetch room error: " + e.getMessage());
+            return null;
+        }
+    }
+
     /* ---------- Public room list ---------- */
     public List<Room> getAvailableRooms() {
         List<Room> list = new ArrayList<>();
-        try (Statement st = conn.createStatement();
-             ResultSet rs = st.executeQuery("SELECT * FROM rooms WHERE is_available=1")) {
+        try (ConnectionPool.PooledConnection c = pool.acquire();
+             ResultSet rs = c.prepare("SELECT * FROM rooms WHERE is_available=1").executeQuery()) {
             while (rs.next()) {
                 list.add(new Room(rs.getInt("room_id"),
                                    rs.getString("type"),
@@ -114,155 +548,677 @@ public class Hotel {
         return list;
     }
 
-    /* ---------- NEW: Show availability for specific dates ---------- */
+    /* ---------- Occupancy and revenue ---------- */
+    /** Per-day, per-room-type occupancy and revenue over [from, to), from running totals. */
+    public List<OccupancyReport.Row> occupancyReport(LocalDate from, LocalDate to) {
+        long t0 = System.nanoTime();
+        Map<String, Integer> roomsByType = new HashMap<>();
+        try {
+            for (Room r : catalog.all()) roomsByType.merge(r.getType(), 1, Integer::sum);
+        } catch (SQLException e) {
+            System.out.println("Report error: " + e.getMessage());
+        }
+        List<OccupancyReport.Row> rows = report.rows(from, to, roomsByType);
+        metrics.record("report", t0, Metrics.Outcome.SUCCESS);
+        return rows;
+    }
+
+    /* ---------- Availability for specific dates ---------- */
+    /** All rooms with a free/booked flag for [in, out), from the room catalog and the index. */
+    public List<RoomAvailability> findAvailability(LocalDate in, LocalDate out) {
+        long t0 = System.nanoTime();
+        Metrics.Outcome outcome = Metrics.Outcome.SUCCESS;
+        List<RoomAvailability> list = new ArrayList<>();
+        try {
+            for (Room room : catalog.all())
+                list.add(new RoomAvailability(room, !overlaps(room.getRoomId(), in, out)));
+        } catch (SQLException e) {
+            outcome = Metrics.Outcome.ERROR;
+            System.out.println("Availability check error: " + e.getMessage());
+        }
+        metrics.record("availability", t0, outcome);
+        return list;
+    }
+
+    /**
+     * Rooms of {@code type} (any type when null) free for the whole of
+     * [in, out), cheapest first. Answered from the occupancy bitmaps; ranges
+     * beyond their horizon fall back to the interval index.
+     */
+    public List<Room> findFreeRooms(String type, LocalDate in, LocalDate out) {
+        long t0 = System.nanoTime();
+        rollCalendar();
+        long inDay = in.toEpochDay(), outDay = out.toEpochDay();
+        List<Room> free;
+        if (calendar.covers(inDay, outDay)) {
+            free = calendar.findFree(type, inDay, outDay);
+        } else {
+            free = new ArrayList<>();
+            for (Room r : calendar.rooms(type))
+                if (!overlaps(r.getRoomId(), in, out)) free.add(r);
+        }
+        metrics.record("free_room_search", t0, Metrics.Outcome.SUCCESS);
+        return free;
+    }
+
+    /**
+     * Moves the calendar horizon up to today and books the stays that fall
+     * in the nights it newly covers. Each stay is booked under its room
+     * lock, and only if still indexed, so a concurrent cancel is not undone.
+     */
+    private void rollCalendar() {
+        LocalDate first = LocalDate.now().minusDays(CALENDAR_PAST_DAYS);
+        if (first.toEpochDay() <= calendar.firstDay()) return;
+        long from = calendar.advanceTo(first), to = calendar.endDay();
+        for (RoomIntervalIndex.Stay st : index.all()) {
+            if (st.outDay <= from || st.inDay >= to) continue;
+            ReentrantLock lock = lockFor(st.roomId);
+            lock.lock();
+            try {
+                if (index.get(st.id) == st) calendar.book(st.roomId, Math.max(st.inDay, from), st.outDay);
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+
     public void showAvailableRoomsByDate(LocalDate in, LocalDate out) {
         System.out.printf("%nAvailability from %s to %s%n", fmt(in), fmt(out));
         System.out.println("Room ID | Type | Price | Available?");
         System.out.println("------------------------------------");
-
-        try (Statement st = conn.createStatement();
-             ResultSet rs = st.executeQuery("SELECT * FROM rooms ORDER BY room_id")) {
-            while (rs.next()) {
-                int id = rs.getInt("room_id");
-                String type = rs.getString("type");
-                double price = rs.getDouble("price");
-                boolean free = !overlaps(id, in, out);
-                System.out.printf("%d | %s | Rs.%.0f | %s%n",
-                        id, type, price, free ? "YES" : "NO");
-            }
-        } catch (SQLException e) {
-            System.out.println("Availability check error: " + e.getMessage());
+        for (RoomAvailability a : findAvailability(in, out)) {
+            System.out.printf("%d | %s | Rs.%.0f | %s%n",
+                    a.getRoomId(), a.getType(), a.getPrice(), a.isFree() ? "YES" : "NO");
         }
     }
 
     /* ---------- Booking with receipt ---------- */
+    /** The new reservation, or null if it was rejected or failed; see book(). */
     public Reservation bookRoomWithReceipt(String cust, int roomId, LocalDate in, LocalDate out) {
+        return book(cust, roomId, in, out).getReservation();
+    }
+
+    /**
+     * Books one stay. The result is rejected for bad dates, an unknown room
+     * or a clash, and failed (isError) when the database or journal failed.
+     */
+    public BookingResult book(String cust, int roomId, LocalDate in, LocalDate out) {
+        long t0 = System.nanoTime();
+        if (!out.isAfter(in)) {
+            System.out.println("Check-out must be after check-in.");
+            metrics.record("book", t0, Metrics.Outcome.CONFLICT);
+            return BookingResult.rejected(0, "check-out must be after check-in");
+        }
+        Metrics.Outcome outcome = Metrics.Outcome.ERROR;
+        ReentrantLock lock = lockFor(roomId);
+        lock.lock();
         try {
             if (overlaps(roomId, in, out)) {
+                outcome = Metrics.Outcome.CONFLICT;
                 System.out.println("Room already booked for those dates.");
-                return null;
+                return BookingResult.rejected(0, "room already booked");
+            }
+
+            Room room = catalog.get(roomId);
+            if (room == null) {
+                outcome = Metrics.Outcome.CONFLICT;
+                System.out.println("Room ID not found.");
+                return BookingResult.rejected(0, "room not found");
+            }
+
+            double total = nightsCost(room.getPrice(), in, out);
+            int id;
+            if (journal != null) {
+                id = nextId.incrementAndGet();
+                journal.append(BookingJournal.Event.book(id, cust, roomId, room.getType(),
+                        in.toEpochDay(), out.toEpochDay(), total));
+            } else {
+                id = insertBooking(cust, roomId, room.getType(), in, out, total);
+                if (id < 0) return BookingResult.failed(0, "no id generated");
+            }
+            track(id, roomId, room.getType(), in.toEpochDay(), out.toEpochDay(), total);
+
+            outcome = Metrics.Outcome.SUCCESS;
+            return BookingResult.accepted(0, new Reservation(id, cust, roomId,
+                    in.toString(), out.toString(), total, "booked"));
+        } catch (SQLException | IOException e) {
+            System.out.println("Booking error: " + e.getMessage());
+            return BookingResult.failed(0, e.getMessage());
+        } finally {
+            lock.unlock();
+            metrics.record("book", t0, outcome);
+        }
+    }
+
+    /** Inserts one booking and flags its room in a single transaction; returns the new id or -1. */
+    private int insertBooking(String cust, int roomId, String roomType, LocalDate in, LocalDate out,
+                              double total) throws SQLException {
+        String ins = """
+            INSERT INTO reservations
+            (customer_name, room_id, payment_status, status,
+             checkin_date, checkout_date, checkin_day, checkout_day, total_cost, room_type)
+            VALUES (?, ?, 'Paid', 'booked', ?, ?, ?, ?, ?, ?)
+        """;
+        try (ConnectionPool.PooledConnection c = pool.acquire()) {
+            c.raw().setAutoCommit(false);
+            PreparedStatement p = c.prepareWithKeys(ins);
+            p.setString(1, cust);
+            p.setInt(2, roomId);
+            p.setString(3, in.toString());
+            p.setString(4, out.toString());
+            p.setLong(5, in.toEpochDay());
+            p.setLong(6, out.toEpochDay());
+            p.setDouble(7, total);
+            p.setString(8, roomType);
+            p.executeUpdate();
+
+            int id;
+            try (ResultSet keys = p.getGeneratedKeys()) {
+                if (!keys.next()) return -1;          // rolled back when c is closed
+                id = keys.getInt(1);
+            }
+            PreparedStatement upd = c.prepare("UPDATE rooms SET is_available=0 WHERE room_id=?");
+            upd.setInt(1, roomId);
+            upd.executeUpdate();
+            c.raw().commit();
+            c.raw().setAutoCommit(true);
+            return id;
+        }
+    }
+
+    /* ---------- Bulk booking ---------- */
+    /**
+     * Books many reservations at once. Every request is checked against the
+     * index and the earlier rows of the same batch; the accepted ones are
+     * inserted with one JDBC batch in a single transaction. Result rows are
+     * the positions in {@code requests}.
+     */
+    public List<BookingResult> bulkBook(List<BookingRequest> requests) {
+        List<BookingResult> results = new ArrayList<>(Collections.nCopies(requests.size(), null));
+        if (requests.isEmpty()) return results;
+        long t0 = System.nanoTime();
+        Metrics.Outcome outcome = Metrics.Outcome.SUCCESS;
+
+        // lock every stripe the batch touches, in a fixed order to avoid deadlock
+        SortedSet<Integer> stripes = new TreeSet<>();
+        for (BookingRequest r : requests) stripes.add(Math.floorMod(r.getRoomId(), roomLocks.length));
+        for (int s : stripes) roomLocks[s].lock();
+        try {
+            // room lookups may hit the DB, so they happen before a connection is held
+            Map<Integer, Room> roomsById = new HashMap<>();
+            for (BookingRequest r : requests) {
+                if (roomsById.containsKey(r.getRoomId())) continue;
+                Room room = catalog.get(r.getRoomId());
+                if (room != null) roomsById.put(r.getRoomId(), room);
             }
 
-            double price;
-            try (PreparedStatement p =
-                     conn.prepareStatement("SELECT price FROM rooms WHERE room_id=?")) {
-                p.setInt(1, roomId);
-                ResultSet r = p.executeQuery();
-                if (!r.next()) { System.out.println("Room ID not found."); return null; }
-                price = r.getDouble("price");
+            RoomIntervalIndex batch = new RoomIntervalIndex();
+            List<Integer> accepted = new ArrayList<>();
+            for (int i = 0; i < requests.size(); i++) {
+                BookingRequest r = requests.get(i);
+                String reason = null;
+                if (r.getCheckin() == null || r.getCheckout() == null
+                        || !r.getCheckout().isAfter(r.getCheckin()))
+                    reason = "check-out must be after check-in";
+                else if (!roomsById.containsKey(r.getRoomId()))
+                    reason = "room not found";
+                else if (overlaps(r.getRoomId(), r.getCheckin(), r.getCheckout()))
+                    reason = "room already booked";
+                else if (batch.overlaps(r.getRoomId(), r.getCheckin(), r.getCheckout()))
+                    reason = "clashes with an earlier row";
+
+                if (reason != null) {
+                    results.set(i, BookingResult.rejected(i, reason));
+                } else {
+                    batch.add(i, r.getRoomId(), r.getCheckin(), r.getCheckout());
+                    accepted.add(i);
+                }
             }
+            if (accepted.isEmpty()) return results;
 
-            double total = nightsCost(price, in, out);
+            // a NULL id lets AUTOINCREMENT choose; with a journal, ids come from nextId
             String ins = """
                 INSERT INTO reservations
-                (customer_name, room_id, payment_status, status, checkin_date, checkout_date, total_cost)
-                VALUES (?, ?, 'Paid', 'booked', ?, ?, ?)
+                (id, customer_name, room_id, payment_status, status,
+                 checkin_date, checkout_date, checkin_day, checkout_day, total_cost, room_type)
+                VALUES (?, ?, ?, 'Paid', 'booked', ?, ?, ?, ?, ?, ?)
             """;
-            try (PreparedStatement p = conn.prepareStatement(ins, Statement.RETURN_GENERATED_KEYS)) {
-                p.setString(1, cust);
-                p.setInt(2, roomId);
-                p.setString(3, in.toString());
-                p.setString(4, out.toString());
-                p.setDouble(5, total);
-                p.executeUpdate();
-
-                ResultSet keys = p.getGeneratedKeys();
-                if (keys.next()) {
-                    int id = keys.getInt(1);
+            int firstId = journal != null ? nextId.getAndAdd(accepted.size()) + 1 : -1;
+            double[] totals = new double[requests.size()];
+            Set<Integer> rooms = new TreeSet<>();
+            try (ConnectionPool.PooledConnection c = pool.acquire()) {
+                c.raw().setAutoCommit(false);
+                PreparedStatement p = c.prepare(ins);
+                int explicit = firstId;
+                for (int i : accepted) {
+                    BookingRequest r = requests.get(i);
+                    Room room = roomsById.get(r.getRoomId());
+                    totals[i] = nightsCost(room.getPrice(), r.getCheckin(), r.getCheckout());
+                    if (journal != null) p.setInt(1, explicit++);
+                    else p.setNull(1, Types.INTEGER);
+                    p.setString(2, r.getCustomerName());
+                    p.setInt(3, r.getRoomId());
+                    p.setString(4, r.getCheckin().toString());
+                    p.setString(5, r.getCheckout().toString());
+                    p.setLong(6, r.getCheckin().toEpochDay());
+                    p.setLong(7, r.getCheckout().toEpochDay());
+                    p.setDouble(8, totals[i]);
+                    p.setString(9, room.getType());
+                    p.addBatch();
+                    rooms.add(r.getRoomId());
+                }
+                p.executeBatch();
 
-                    try (PreparedStatement upd =
-                             conn.prepareStatement("UPDATE rooms SET is_available=0 WHERE room_id=?")) {
-                        upd.setInt(1, roomId);
-                        upd.executeUpdate();
+                if (firstId < 0) {
+                    // AUTOINCREMENT hands out consecutive ids inside our write transaction
+                    try (ResultSet rs = c.prepare("SELECT last_insert_rowid()").executeQuery()) {
+                        rs.next();
+                        firstId = rs.getInt(1) - accepted.size() + 1;
                     }
-
-                    return new Reservation(id, cust, roomId,
-                            in.toString(), out.toString(), total, "booked");
                 }
+                PreparedStatement upd = c.prepare("UPDATE rooms SET is_available=0 WHERE room_id=?");
+                for (int roomId : rooms) {
+                    upd.setInt(1, roomId);
+                    upd.addBatch();
+                }
+                upd.executeBatch();
+                c.raw().commit();
+                c.raw().setAutoCommit(true);
+            }
+
+            int id = firstId;
+            for (int i : accepted) {
+                BookingRequest r = requests.get(i);
+                track(id, r.getRoomId(), roomsById.get(r.getRoomId()).getType(),
+                      r.getCheckin().toEpochDay(), r.getCheckout().toEpochDay(), totals[i]);
+                results.set(i, BookingResult.accepted(i, new Reservation(id, r.getCustomerName(),
+                        r.getRoomId(), r.getCheckin().toString(), r.getCheckout().toString(),
+                        totals[i], "booked")));
+                id++;
             }
         } catch (SQLException e) {
-            System.out.println("Booking error: " + e.getMessage());
+            outcome = Metrics.Outcome.ERROR;
+            System.out.println("Bulk booking error: " + e.getMessage());
+            for (int i = 0; i < results.size(); i++)
+                if (results.get(i) == null || results.get(i).isAccepted())
+                    results.set(i, BookingResult.failed(i, "database error: " + e.getMessage()));
+        } finally {
+            for (int s : stripes) roomLocks[s].unlock();
+            metrics.record("bulk_book", t0, outcome);
         }
-        return null;
+        return results;
     }
 
     /* ---------- Cancel booking ---------- */
     public boolean cancelBooking(int id) {
-        String q = "SELECT room_id FROM reservations WHERE id=? AND status='booked'";
-        try (PreparedStatement p = conn.prepareStatement(q)) {
-            p.setInt(1, id);
-            ResultSet r = p.executeQuery();
-            if (!r.next()) return false;
+        return cancelBookingOutcome(id) == Metrics.Outcome.SUCCESS;
+    }
 
-            int roomId = r.getInt("room_id");
+    /** SUCCESS when cancelled, CONFLICT when nothing is booked under {@code id}, ERROR when that failed. */
+    public Metrics.Outcome cancelBookingOutcome(int id) {
+        long t0 = System.nanoTime();
+        Boolean ok = cancel(id);
+        Metrics.Outcome outcome = ok == null ? Metrics.Outcome.ERROR
+                : ok ? Metrics.Outcome.SUCCESS : Metrics.Outcome.CONFLICT;
+        metrics.record("cancel", t0, outcome);
+        return outcome;
+    }
 
-            try (PreparedStatement upd =
-                     conn.prepareStatement("UPDATE reservations SET status='cancelled' WHERE id=?")) {
-                upd.setInt(1, id);
-                upd.executeUpdate();
+    /** true = cancelled, false = nothing booked under that id, null = database error. */
+    private Boolean cancel(int id) {
+        int roomId;
+        RoomIntervalIndex.Stay stay = index.get(id);
+        if (stay != null) {
+            roomId = stay.roomId;
+        } else {
+            try {
+                Integer r = bookedRoomOf(id);
+                if (r == null) return false;
+                roomId = r;
+            } catch (SQLException e) {
+                System.out.println("Cancel error: " + e.getMessage());
+                return null;
+            }
+        }
+
+        ReentrantLock lock = lockFor(roomId);
+        lock.lock();
+        if (journal != null) {
+            try {
+                if (index.get(id) == null) return false;      // cancelled meanwhile
+                journal.append(BookingJournal.Event.cancel(id, roomId));
+                untrack(id);
+                return true;
+            } catch (IOException e) {
+                System.out.println("Cancel error: " + e.getMessage());
+                return null;
+            } finally {
+                lock.unlock();
             }
-            try (PreparedStatement free =
-                     conn.prepareStatement("UPDATE rooms SET is_available=1 WHERE room_id=?")) {
+        }
+        try {
+            try (ConnectionPool.PooledConnection c = pool.acquire()) {
+                c.raw().setAutoCommit(false);
+                PreparedStatement upd =
+                        c.prepare("UPDATE reservations SET status='cancelled' WHERE id=? AND status='booked'");
+                upd.setInt(1, id);
+                if (upd.executeUpdate() == 0) return false;   // already cancelled by someone else
+
+                PreparedStatement free = c.prepare("UPDATE rooms SET is_available=1 WHERE room_id=?");
                 free.setInt(1, roomId);
                 free.executeUpdate();
+                c.raw().commit();
+                c.raw().setAutoCommit(true);
             }
+            untrack(id);                              // after the connection is back in the pool
             return true;
         } catch (SQLException e) {
             System.out.println("Cancel error: " + e.getMessage());
-            return false;
+            return null;
+        } finally {
+            lock.unlock();
         }
     }
 
-    /* ---------- View functions ---------- */
-    public void viewAllBookings() {
-        System.out.println("ID | Name | Room | Checkin | Checkout | Cost | Status");
-        try (Statement st = conn.createStatement();
-             ResultSet rs = st.executeQuery("SELECT * FROM reservations ORDER BY id")) {
-            while (rs.next()) {
-                System.out.printf("%d | %s | %d | %s | %s | Rs.%.0f | %s%n",
-                        rs.getInt("id"), rs.getString("customer_name"),
-                        rs.getInt("room_id"),
-                        fmt(rs.getString("checkin_date")),
-                        fmt(rs.getString("checkout_date")),
-                        rs.getDouble("total_cost"),
-                        rs.getString("status"));
+    private Integer bookedRoomOf(int id) throws SQLException {
+        String q = "SELECT room_id FROM reservations WHERE id=? AND status='booked'";
+        try (ConnectionPool.PooledConnection c = pool.acquire()) {
+            PreparedStatement p = c.prepare(q);
+            p.setInt(1, id);
+            try (ResultSet r = p.executeQuery()) {
+                return r.next() ? r.getInt("room_id") : null;
+            }
+        }
+    }
+
+    /* ---------- Archival ---------- */
+    private static final int ARCHIVE_BATCH = 1000;
+
+    /**
+     * Moves cancelled bookings and stays that checked out before
+     * {@code cutoff} out of the hot table into the compressed archive,
+     * one block per batch. Archived stays leave the availability index but
+     * keep counting in the occupancy report. Returns rows moved, or -1.
+     */
+    public long archive(LocalDate cutoff) {
+        if (cutoff.isAfter(LocalDate.now())) cutoff = LocalDate.now();   // never archive a live stay
+        // journalled rows must reach the table first, or a replay could resurrect them
+        if (journal != null && !journal.checkpoint(5_000)) {
+            System.out.println("Archive error: booking journal did not drain in time");
+            return -1;
+        }
+        String sel = """
+            SELECT * FROM reservations
+            WHERE id > ? AND (status='cancelled' OR checkout_day < ?)
+            ORDER BY id LIMIT ?
+        """;
+        long t0 = System.nanoTime();
+        long moved = 0;
+        int afterId = 0;
+        try (ConnectionPool.PooledConnection c = pool.acquire();
+             Statement tx = c.raw().createStatement()) {
+            while (true) {
+                // take the write lock up front: a read-then-write transaction fails with
+                // SQLITE_BUSY_SNAPSHOT if anyone commits in between, and that is not retried
+                tx.execute("BEGIN IMMEDIATE");
+                List<Reservation> batch = new ArrayList<>();
+                try {
+                    PreparedStatement p = c.prepare(sel);
+                    p.setInt(1, afterId);
+                    p.setLong(2, cutoff.toEpochDay());
+                    p.setInt(3, ARCHIVE_BATCH);
+                    try (ResultSet rs = p.executeQuery()) {
+                        while (rs.next()) batch.add(toReservation(rs));
+                    }
+                    if (!batch.isEmpty()) {
+                        PreparedStatement del = c.prepare("DELETE FROM reservations WHERE id=?");
+                        for (Reservation r : batch) {
+                            del.setInt(1, r.getId());
+                            del.addBatch();
+                        }
+                        del.executeBatch();
+                        archive.append(batch);    // cold copy is durable before the hot rows go
+                    }
+                    tx.execute("COMMIT");
+                } catch (SQLException e) {
+                    tx.execute("ROLLBACK");
+                    throw e;
+                }
+                if (batch.isEmpty()) break;
+
+                for (Reservation r : batch) {
+                    RoomIntervalIndex.Stay st = index.remove(r.getId());
+                    if (st != null) calendar.release(st.roomId, st.inDay, st.outDay);
+                }
+                moved += batch.size();
+                afterId = batch.get(batch.size() - 1).getId();
+            }
+        } catch (SQLException e) {
+            metrics.record("archive", t0, Metrics.Outcome.ERROR);
+            System.out.println("Archive error: " + e.getMessage());
+            return moved > 0 ? moved : -1;
+        }
+        metrics.record("archive", t0, Metrics.Outcome.SUCCESS);
+        return moved;
+    }
+
+    /** One booking by id, from the hot table or else the archive; null if unknown. */
+    public Reservation findBooking(int id) {
+        try (ConnectionPool.PooledConnection c = pool.acquire()) {
+            PreparedStatement p = c.prepare("SELECT * FROM reservations WHERE id=?");
+            p.setInt(1, id);
+            try (ResultSet rs = p.executeQuery()) {
+                if (rs.next()) return toReservation(rs);
             }
+            return archive.find(id);
+        } catch (SQLException e) {
+            System.out.println("Find booking error: " + e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Like {@link #findBookings} but also searches the archive, merging both
+     * stores by id so paging works the same across them.
+     */
+    public BookingPage findHistory(BookingQuery q, int afterId, int limit) {
+        BookingPage hot = findBookings(q, afterId, limit);
+        List<Reservation> cold;
+        try {
+            cold = archive.find(q, afterId, limit + 1);
+        } catch (SQLException e) {
+            System.out.println("Find booking error: " + e.getMessage());
+            return hot;
+        }
+        TreeMap<Integer, Reservation> merged = new TreeMap<>();
+        for (Reservation r : cold) merged.put(r.getId(), r);
+        for (Reservation r : hot.getRows()) merged.put(r.getId(), r);   // hot copy wins
+        List<Reservation> rows = new ArrayList<>(merged.values());
+        boolean more = hot.hasMore() || rows.size() > limit;
+        if (rows.size() > limit) rows = new ArrayList<>(rows.subList(0, limit));
+        int next = rows.isEmpty() ? afterId : rows.get(rows.size() - 1).getId();
+        return new BookingPage(rows, next, more);
+    }
+
+    /* ---------- Booking listings ---------- */
+    /** SQL filter for a query; params are appended in placeholder order. */
+    private String where(BookingQuery q, List<Object> params) {
+        StringBuilder w = new StringBuilder(" WHERE id > ?");
+        if (q.getStatus() != null) { w.append(" AND status = ?");        params.add(q.getStatus()); }
+        if (q.getRoomId() != null) { w.append(" AND room_id = ?");       params.add(q.getRoomId()); }
+        if (q.getTo() != null)     { w.append(" AND checkin_day < ?");   params.add(q.getTo().toEpochDay()); }
+        if (q.getFrom() != null)   { w.append(" AND checkout_day > ?");  params.add(q.getFrom().toEpochDay()); }
+        return w.toString();
+    }
+
+    private static Reservation toReservation(ResultSet rs) throws SQLException {
+        return new Reservation(rs.getInt("id"), rs.getString("customer_name"),
+                rs.getInt("room_id"), rs.getString("checkin_date"),
+                rs.getString("checkout_date"), rs.getDouble("total_cost"),
+                rs.getString("status"), rs.getString("room_type"));
+    }
+
+    /** Bookings matching {@code q} with id > afterId, oldest first, at most {@code limit} rows. */
+    public BookingPage findBookings(BookingQuery q, int afterId, int limit) {
+        try {
+            return queryBookings(q, afterId, limit);
         } catch (SQLException e) {
             System.out.println("View bookings error: " + e.getMessage());
+            return new BookingPage(List.of(), afterId, false);
         }
     }
 
-    public void showRoomSchedule() {
-        try (Statement st = conn.createStatement();
-             ResultSet rooms = st.executeQuery("SELECT * FROM rooms ORDER BY room_id")) {
-            while (rooms.next()) {
-                int id = rooms.getInt("room_id");
-                String type = rooms.getString("type");
-                double price = rooms.getDouble("price");
-                System.out.printf("\nRoom %d - %s (Rs.%.0f):%n", id, type, price);
-
-                String bSql = """
-                    SELECT checkin_date, checkout_date, status
-                    FROM reservations
-                    WHERE room_id = ?
-                    ORDER BY checkin_date
-                """;
-                try (PreparedStatement pst = conn.prepareStatement(bSql)) {
-                    pst.setInt(1, id);
-                    ResultSet bks = pst.executeQuery();
-                    boolean any = false;
-                    while (bks.next()) {
-                        any = true;
-                        System.out.printf("  %s: %s to %s%n",
-                                bks.getString("status"),
-                                fmt(bks.getString("checkin_date")),
-                                fmt(bks.getString("checkout_date")));
+    /** Like findBookings, but a database error reaches the caller instead of an empty page. */
+    public BookingPage queryBookings(BookingQuery q, int afterId, int limit) throws SQLException {
+        List<Object> params = new ArrayList<>();
+        params.add(afterId);
+        String sql = "SELECT * FROM reservations" + where(q, params) + " ORDER BY id LIMIT ?";
+        params.add(limit + 1);                  // one extra row tells us whether more exist
+
+        long t0 = System.nanoTime();
+        List<Reservation> rows = new ArrayList<>();
+        try (ConnectionPool.PooledConnection c = pool.acquire()) {
+            PreparedStatement p = c.prepare(sql);
+            for (int i = 0; i < params.size(); i++) p.setObject(i + 1, params.get(i));
+            try (ResultSet rs = p.executeQuery()) {
+                while (rs.next()) rows.add(toReservation(rs));
+            }
+        } catch (SQLException e) {
+            metrics.record("listing", t0, Metrics.Outcome.ERROR);
+            throw e;
+        }
+        metrics.record("listing", t0, Metrics.Outcome.SUCCESS);
+        boolean more = rows.size() > limit;
+        if (more) rows.remove(rows.size() - 1);
+        int next = rows.isEmpty() ? afterId : rows.get(rows.size() - 1).getId();
+        return new BookingPage(rows, next, more);
+    }
+
+    /**
+     * Streams every booking matching {@code q} to {@code file} row by row,
+     * so memory stays flat however large the table is. Returns rows written.
+     */
+    public long exportBookings(BookingQuery q, Path file, ExportFormat format) throws IOException {
+        List<Object> params = new ArrayList<>();
+        params.add(0);
+        String sql = "SELECT * FROM reservations" + where(q, params) + " ORDER BY id";
+        long t0 = System.nanoTime();
+        long n = 0;
+        try (FileChannel ch = FileChannel.open(file, StandardOpenOption.CREATE,
+                     StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE);
+             Writer w = new BufferedWriter(Channels.newWriter(ch, StandardCharsets.UTF_8), 1 << 16);
+             ConnectionPool.PooledConnection c = pool.acquire()) {
+            if (format == ExportFormat.CSV)
+                w.write("id,customer_name,room_id,checkin_date,checkout_date,total_cost,status\n");
+            PreparedStatement p = c.prepare(sql);
+            p.setFetchSize(1000);
+            for (int i = 0; i < params.size(); i++) p.setObject(i + 1, params.get(i));
+            try (ResultSet rs = p.executeQuery()) {
+                while (rs.next()) {
+                    Reservation r = toReservation(rs);
+                    w.write(format == ExportFormat.CSV ? csvLine(r) : Json.of(r) + "\n");
+                    n++;
+                }
+            }
+        } catch (SQLException | IOException e) {
+            metrics.record("export", t0, Metrics.Outcome.ERROR);
+            if (e instanceof IOException io) throw io;
+            throw new IOException("Export failed: " + e.getMessage(), e);
+        }
+        metrics.record("export", t0, Metrics.Outcome.SUCCESS);
+        return n;
+    }
+
+    private static String csvLine(Reservation r) {
+        String name = r.getCustomerName() == null ? "" : r.getCustomerName();
+        if (name.contains(",") || name.contains("\"") || name.contains("\n"))
+            name = "\"" + name.replace("\"", "\"\"") + "\"";
+        return r.getId() + "," + name + "," + r.getRoomId() + "," + r.getCheckinDate() + ","
+                + r.getCheckoutDate() + "," + r.getTotalCost() + "," + r.getStatus() + "\n";
+    }
+
+    /* ---------- View functions ---------- */
+    public void printBookings(List<Reservation> rows) {
+        for (Reservation r : rows) {
+            System.out.printf("%d | %s | %d | %s | %s | Rs.%.0f | %s%n",
+                    r.getId(), r.getCustomerName(), r.getRoomId(),
+                    fmt(r.getCheckinDate()), fmt(r.getCheckoutDate()),
+                    r.getTotalCost(), r.getStatus());
+        }
+    }
+
+    /**
+     * Streams every room and its bookings to {@code sink} from one ordered
+     * join. With {@code from}/{@code to} (either may be null) only bookings
+     * overlapping that window are included; every room is still listed.
+     */
+    public void schedule(LocalDate from, LocalDate to, ScheduleSink sink) throws IOException {
+        StringBuilder sql = new StringBuilder("""
+            SELECT r.room_id, r.type, r.price, r.is_available,
+                   b.id, b.status, b.checkin_date, b.checkout_date
+            FROM rooms r
+            LEFT JOIN reservations b ON b.room_id = r.room_id
+        """);
+        List<Object> params = new ArrayList<>();
+        if (to != null)   { sql.append(" AND b.checkin_day < ?");  params.add(to.toEpochDay()); }
+        if (from != null) { sql.append(" AND b.checkout_day > ?"); params.add(from.toEpochDay()); }
+        sql.append(" ORDER BY r.room_id, b.checkin_day, b.id");
+
+        long t0 = System.nanoTime();
+        try (ConnectionPool.PooledConnection c = pool.acquire()) {
+            PreparedStatement p = c.prepare(sql.toString());
+            p.setFetchSize(1000);
+            for (int i = 0; i < params.size(); i++) p.setObject(i + 1, params.get(i));
+            try (ResultSet rs = p.executeQuery()) {
+                Room room = null;
+                while (rs.next()) {
+                    if (room == null || room.getRoomId() != rs.getInt("room_id")) {
+                        room = toRoom(rs);
+                        sink.room(room);
                     }
-                    if (!any) System.out.println("  Available for all dates.");
+                    int id = rs.getInt("id");
+                    if (!rs.wasNull())
+                        sink.booking(room, id, rs.getString("status"),
+                                rs.getString("checkin_date"), rs.getString("checkout_date"));
                 }
             }
         } catch (SQLException e) {
-            System.out.println("Schedule error: " + e.getMessage());
+            metrics.record("schedule", t0, Metrics.Outcome.ERROR);
+            throw new IOException("Schedule failed: " + e.getMessage(), e);
+        } catch (IOException e) {
+            metrics.record("schedule", t0, Metrics.Outcome.ERROR);
+            throw e;
+        }
+        metrics.record("schedule", t0, Metrics.Outcome.SUCCESS);
+    }
+
+    public void showRoomSchedule() {
+        showRoomSchedule(null, null);
+    }
+
+    /** Prints the schedule through one buffered writer; System.out itself is left open. */
+    public void showRoomSchedule(LocalDate from, LocalDate to) {
+        PrintWriter out = new PrintWriter(new BufferedWriter(new OutputStreamWriter(System.out), 1 << 16));
+        String none = from == null && to == null ? "  Available for all dates." : "  No bookings in this window.";
+        boolean[] empty = {false};                     // last room printed has no bookings yet
+        try {
+            schedule(from, to, new ScheduleSink() {
+                public void room(Room room) {
+                    if (empty[0]) out.println(none);
+                    out.printf("%nRoom %d - %s (Rs.%.0f):%n", room.getRoomId(), room.getType(), room.getPrice());
+                    empty[0] = true;
+                }
+
+                public void booking(Room room, int id, String status, String checkin, String checkout) {
+                    out.append("  ").append(status).append(": ").append(fmt(checkin))
+                       .append(" to ").append(fmt(checkout)).println();
+                    empty[0] = false;
+                }
+            });
+            if (empty[0]) out.println(none);
+        } catch (IOException e) {
+            out.println("Schedule error: " + e.getMessage());
         }
+        out.flush();
     }
 }
@@ -0,0 +1,150 @@
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.function.BiFunction;
+
+/**
+ * Several properties, each a Hotel on its own SQLite file, so writes to
+ * different properties never share a database lock. Chain-wide reads fan
+ * out to every property in parallel and merge the answers. Journals and
+ * snapshots, when enabled, are per property too: hotel-<id>.journal and
+ * hotel-<id>.snapshot, and so is the metrics dump, hotel-<id>-metrics.txt.
+ */
+public class HotelChain implements AutoCloseable {
+
+    private final Map<String, Hotel> properties = new LinkedHashMap<>();
+    private final ExecutorService fanOut = Workers.newPerTaskExecutor();
+
+    public HotelChain(Collection<String> propertyIds) {
+        this(propertyIds, false, false);
+    }
+
+    /** If a property fails to open, the ones already opened are closed before the error propagates. */
+    public HotelChain(Collection<String> propertyIds, boolean journals, boolean snapshots) {
+        try {
+            for (String id : propertyIds) {
+                if (!properties.containsKey(id))
+                    properties.put(id, new Hotel(DBConnection.urlFor(id),
+                            journals ? journalFor(id) : null, snapshots ? snapshotFor(id) : null));
+            }
+        } catch (RuntimeException e) {
+            try {
+                close();
+            } catch (RuntimeException closeFailure) {
+                e.addSuppressed(closeFailure);
+            }
+            throw e;
+        }
+    }
+
+    /** Journal file of one property: hotel-<id>.journal. */
+    public static Path journalFor(String propertyId) {
+        DBConnection.urlFor(propertyId);          // same id rules as the database file
+        return Path.of("hotel-" + propertyId + ".journal");
+    }
+
+    /** Snapshot file of one property: hotel-<id>.snapshot. */
+    public static Path snapshotFor(String propertyId) {
+        DBConnection.urlFor(propertyId);
+        return Path.of("hotel-" + propertyId + ".snapshot");
+    }
+
+    /** Metrics dump of one property: hotel-<id>-metrics.txt. */
+    public static Path metricsFileFor(String propertyId) {
+        DBConnection.urlFor(propertyId);
+        return Path.of("hotel-" + propertyId + "-metrics.txt");
+    }
+
+    public Set<String> properties() { return properties.keySet(); }
+
+    public Hotel property(String id) {
+        Hotel h = properties.get(id);
+        if (h == null) throw new IllegalArgumentException("Unknown property " + id);
+        return h;
+    }
+
+    /** Runs {@code query} on every property at once; results keep the property order. */
+    public <T> Map<String, T> fanOut(BiFunction<String, Hotel, T> query) {
+        Map<String, CompletableFuture<T>> futures = new LinkedHashMap<>();
+        properties.forEach((id, h) -> futures.put(id, CompletableFuture.supplyAsync(() -> query.apply(id, h), fanOut)));
+        Map<String, T> results = new LinkedHashMap<>();
+        futures.forEach((id, f) -> results.put(id, f.join()));
+        return results;
+    }
+
+    public Map<String, List<RoomAvailability>> findAvailability(LocalDate in, LocalDate out) {
+        return fanOut((id, h) -> h.findAvailability(in, out));
+    }
+
+    /** Free rooms of {@code type} (any when null) across the chain, cheapest first. */
+    public List<PropertyRoom> findFreeRooms(String type, LocalDate in, LocalDate out) {
+        List<PropertyRoom> merged = new ArrayList<>();
+        fanOut((id, h) -> h.findFreeRooms(type, in, out)).forEach((id, rooms) -> {
+            for (Room r : rooms) merged.add(new PropertyRoom(id, r));
+        });
+        merged.sort(Comparator.comparingDouble((PropertyRoom p) -> p.getRoom().getPrice())
+                              .thenComparing(PropertyRoom::getProperty)
+                              .thenComparingInt(p -> p.getRoom().getRoomId()));
+        return merged;
+    }
+
+    /** Read position in one property's page during the merge. */
+    private static final class Cursor {
+        final String property;
+        final BookingPage page;
+        int pos;
+
+        Cursor(String property, BookingPage page) { this.property = property; this.page = page; }
+
+        Reservation head() { return page.getRows().get(pos); }
+    }
+
+    /**
+     * Up to {@code limit} bookings from the whole chain, by id then property.
+     * Every property returns one page of {@code limit} and the pages are
+     * merged through a heap, so no property can run out before the merged
+     * page is full. {@code afterIds} holds each property's cursor from the
+     * previous page (absent = start); feed back getNextAfterIds().
+     */
+    public ChainBookingPage findBookings(BookingQuery q, Map<String, Integer> afterIds, int limit) {
+        PriorityQueue<Cursor> heap = new PriorityQueue<>(
+                Comparator.comparingInt((Cursor c) -> c.head().getId()).thenComparing(c -> c.property));
+        List<Cursor> cursors = new ArrayList<>();
+        fanOut((id, h) -> h.findBookings(q, afterIds.getOrDefault(id, 0), limit)).forEach((id, page) -> {
+            Cursor c = new Cursor(id, page);
+            cursors.add(c);
+            if (!page.getRows().isEmpty()) heap.add(c);
+        });
+
+        List<PropertyBooking> rows = new ArrayList<>(limit);
+        Map<String, Integer> next = new HashMap<>(afterIds);
+        while (rows.size() < limit && !heap.isEmpty()) {
+            Cursor c = heap.poll();
+            Reservation r = c.head();
+            rows.add(new PropertyBooking(c.property, r));
+            next.put(c.property, r.getId());
+            if (++c.pos < c.page.getRows().size()) heap.add(c);
+        }
+
+        boolean more = false;
+        for (Cursor c : cursors)
+            more |= c.pos < c.page.getRows().size() || c.page.hasMore();
+        return new ChainBookingPage(rows, next, more);
+    }
+
+    @Override
+    public void close() {
+        fanOut.shutdown();
+        properties.values().forEach(Hotel::close);
+    }
+}
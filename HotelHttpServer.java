@@ -0,0 +1,218 @@
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+
+/**
+ * Embedded HTTP/JSON front end over one Hotel, one (virtual) thread per
+ * request. Parameters come from the query string or a form-encoded body;
+ * dates are YYYY-MM-DD.
+ *
+ *   GET  /availability?in=&out=[&type=]     all rooms, or free rooms of a type
+ *   POST /bookings        name, room, in, out
+ *   POST /bookings/{id}/cancel
+ *   GET  /bookings?[status=&room=&from=&to=&after=&limit=]
+ */
+public class HotelHttpServer implements AutoCloseable {
+
+    private static final int MAX_PAGE = 1000;
+
+    private final Hotel hotel;
+    private final HttpServer server;
+    private final ExecutorService executor = Workers.newPerTaskExecutor();
+
+    public HotelHttpServer(Hotel hotel, int port) throws IOException {
+        this.hotel = hotel;
+        this.server = HttpServer.create(new InetSocketAddress(port), 1024);
+        server.setExecutor(executor);
+        server.createContext("/availability", ex -> handle(ex, this::availability));
+        server.createContext("/bookings", ex -> handle(ex, this::bookings));
+    }
+
+    public void start() { server.start(); }
+
+    public int port() { return server.getAddress().getPort(); }
+
+    @Override
+    public void close() {
+        server.stop(1);
+        executor.shutdown();
+    }
+
+    /* ---------- Routing ---------- */
+    private interface Handler {
+        void handle(HttpExchange ex, Map<String, String> params) throws IOException;
+    }
+
+    /** Thrown to answer with an error status and a JSON message. */
+    private static final class HttpError extends RuntimeException {
+        private static final long serialVersionUID = 1L;
+        final int status;
+        HttpError(int status, String message) { super(message); this.status = status; }
+    }
+
+    private void handle(HttpExchange ex, Handler h) throws IOException {
+        try (ex) {
+            try {
+                h.handle(ex, params(ex));
+            } catch (HttpError e) {
+                send(ex, e.status, error(e.getMessage()));
+            } catch (NumberFormatException | DateTimeParseException e) {
+                send(ex, 400, error("Invalid parameter: " + e.getMessage()));
+            } catch (RuntimeException e) {
+                send(ex, 500, error("Internal error: " + e.getMessage()));
+            }
+        }
+    }
+
+    private void availability(HttpExchange ex, Map<String, String> p) throws IOException {
+        requireMethod(ex, "GET");
+        LocalDate in = date(p, "in"), out = date(p, "out");
+        if (!out.isAfter(in)) throw new HttpError(400, "out must be after in");
+
+        StringBuilder sb = new StringBuilder("[");
+        if (p.containsKey("type")) {
+            for (Room r : hotel.findFreeRooms(p.get("type"), in, out))
+                sep(sb).append(room(r, true));
+        } else {
+            for (RoomAvailability a : hotel.findAvailability(in, out))
+                sep(sb).append(room(a.getRoom(), a.isFree()));
+        }
+        send(ex, 200, sb.append(']').toString());
+    }
+
+    private void bookings(HttpExchange ex, Map<String, String> p) throws IOException {
+        String path = ex.getRequestURI().getPath();
+        if (path.equals("/bookings") || path.equals("/bookings/")) {
+            if (ex.getRequestMethod().equals("POST")) book(ex, p);
+            else { requireMethod(ex, "GET"); list(ex, p); }
+            return;
+        }
+        String[] parts = path.split("/");          // "", "bookings", "{id}", "cancel"
+        if (parts.length == 4 && parts[3].equals("cancel")) {
+            requireMethod(ex, "POST");
+            int id = Integer.parseInt(parts[2]);
+            switch (hotel.cancelBookingOutcome(id)) {
+                case CONFLICT -> throw new HttpError(404, "No active booking " + id);
+                case ERROR -> throw new HttpError(500, "Could not cancel booking " + id);
+                case SUCCESS -> { }
+            }
+            send(ex, 200, "{\"id\":" + id + ",\"status\":\"cancelled\"}");
+            return;
+        }
+        throw new HttpError(404, "Unknown path " + path);
+    }
+
+    private void book(HttpExchange ex, Map<String, String> p) throws IOException {
+        String name = required(p, "name");
+        int roomId = Integer.parseInt(required(p, "room"));
+        LocalDate in = date(p, "in"), out = date(p, "out");
+        if (!out.isAfter(in)) throw new HttpError(400, "out must be after in");
+        if (hotel.getRoom(roomId) == null) throw new HttpError(404, "Room " + roomId + " not found");
+
+        BookingResult r = hotel.book(name, roomId, in, out);
+        if (r.isError()) throw new HttpError(500, "Booking failed: " + r.getReason());
+        if (!r.isAccepted()) throw new HttpError(409, "Room " + roomId + " is not free for those dates");
+        send(ex, 201, Json.of(r.getReservation()));
+    }
+
+    private void list(HttpExchange ex, Map<String, String> p) throws IOException {
+        BookingQuery q = BookingQuery.all().status(p.get("status"));
+        if (p.containsKey("room")) q.room(Integer.parseInt(p.get("room")));
+        if (p.containsKey("from")) q.from(date(p, "from"));
+        if (p.containsKey("to")) q.to(date(p, "to"));
+        int after = Integer.parseInt(p.getOrDefault("after", "0"));
+        int limit = Integer.parseInt(p.getOrDefault("limit", "100"));
+        if (limit <= 0) throw new HttpError(400, "limit must be positive");
+        limit = Math.max(1, Math.min(MAX_PAGE, limit));
+
+        BookingPage page;
+        try {
+            page = hotel.queryBookings(q, after, limit);
+        } catch (SQLException e) {
+            throw new HttpError(500, "Listing failed: " + e.getMessage());
+        }
+        StringBuilder sb = new StringBuilder("{\"bookings\":[");
+        List<Reservation> rows = page.getRows();
+        for (int i = 0; i < rows.size(); i++) {
+            if (i > 0) sb.append(',');
+            sb.append(Json.of(rows.get(i)));
+        }
+        sb.append("],\"next_after\":").append(page.getNextAfterId())
+          .append(",\"has_more\":").append(page.hasMore()).append('}');
+        send(ex, 200, sb.toString());
+    }
+
+    /* ---------- Helpers ---------- */
+    private static void requireMethod(HttpExchange ex, String method) {
+        if (!ex.getRequestMethod().equals(method))
+            throw new HttpError(405, "Use " + method);
+    }
+
+    private static String required(Map<String, String> p, String key) {
+        String v = p.get(key);
+        if (v == null || v.isBlank()) throw new HttpError(400, "Missing parameter " + key);
+        return v;
+    }
+
+    private static LocalDate date(Map<String, String> p, String key) {
+        return LocalDate.parse(required(p, key));
+    }
+
+    private static Map<String, String> params(HttpExchange ex) throws IOException {
+        Map<String, String> p = new HashMap<>();
+        parse(ex.getRequestURI().getRawQuery(), p);
+        String ct = ex.getRequestHeaders().getFirst("Content-Type");
+        if (ct != null && ct.startsWith("application/x-www-form-urlencoded")) {
+            try (InputStream body = ex.getRequestBody()) {
+                parse(new String(body.readAllBytes(), StandardCharsets.UTF_8), p);
+            }
+        }
+        return p;
+    }
+
+    private static void parse(String raw, Map<String, String> into) {
+        if (raw == null || raw.isEmpty()) return;
+        for (String pair : raw.split("&")) {
+            int eq = pair.indexOf('=');
+            String k = eq < 0 ? pair : pair.substring(0, eq);
+            String v = eq < 0 ? "" : pair.substring(eq + 1);
+            into.put(URLDecoder.decode(k, StandardCharsets.UTF_8), URLDecoder.decode(v, StandardCharsets.UTF_8));
+        }
+    }
+
+    private static StringBuilder sep(StringBuilder sb) {
+        if (sb.length() > 1) sb.append(',');
+        return sb;
+    }
+
+    private static String room(Room r, boolean free) {
+        return "{\"room_id\":" + r.getRoomId() + ",\"type\":" + Json.quote(r.getType())
+                + ",\"price\":" + r.getPrice() + ",\"free\":" + free + "}";
+    }
+
+    private static String error(String message) {
+        return "{\"error\":" + Json.quote(message) + "}";
+    }
+
+    private static void send(HttpExchange ex, int status, String json) throws IOException {
+        byte[] body = json.getBytes(StandardCharsets.UTF_8);
+        ex.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+        ex.sendResponseHeaders(status, body.length);
+        try (OutputStream os = ex.getResponseBody()) {
+            os.write(body);
+        }
+    }
+}
@@ -0,0 +1,230 @@
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Soak test: N concurrent clients book, cancel and search against a
+ * throw-away SQLite file for a fixed time, then the tables are checked for
+ * double bookings.
+ *
+ *   java -cp .:sqlite-jdbc-3.36.0.3.jar HotelLoadTest [--threads 64]
+ *        [--duration 30] [--rooms 200] [--mix 60,20,20] [--hot-rooms 0.05]
+ *        [--hot-share 0.8] [--spread 365] [--journal]
+ *
+ * --mix is the book/cancel/availability split in percent. A --hot-share of
+ * the traffic goes to the first --hot-rooms fraction of rooms and the first
+ * two weeks of the calendar, to force contention. Exits with status 1 if
+ * any room ends up booked twice for the same night.
+ */
+public class HotelLoadTest {
+
+    private static final LocalDate BASE = LocalDate.now().plusDays(1);
+    private static final int HOT_DAYS = 14;
+
+    private int threads = 64;
+    private int durationSeconds = 30;
+    private int rooms = 200;
+    private int[] mix = {60, 20, 20};
+    private double hotRooms = 0.05;
+    private double hotShare = 0.8;
+    private int spreadDays = 365;
+    private boolean journal;
+
+    /** Client-side counters for one operation. */
+    private static final class Op {
+        final String name;
+        final LatencyHistogram latency = new LatencyHistogram();
+        final LongAdder ok = new LongAdder();
+        final LongAdder rejected = new LongAdder();
+        final LongAdder failed = new LongAdder();
+
+        Op(String name) { this.name = name; }
+    }
+
+    private final Op book = new Op("book");
+    private final Op cancel = new Op("cancel");
+    private final Op avail = new Op("availability");
+    // booked ids waiting to be cancelled by some client
+    private final ConcurrentLinkedQueue<Integer> booked = new ConcurrentLinkedQueue<>();
+
+    public static void main(String[] args) throws Exception {
+        HotelLoadTest t = new HotelLoadTest();
+        for (int i = 0; i < args.length; i++) {
+            String v = i + 1 < args.length ? args[i + 1] : null;
+            switch (args[i]) {
+                case "--threads" -> { t.threads = Integer.parseInt(v); i++; }
+                case "--duration" -> { t.durationSeconds = Integer.parseInt(v); i++; }
+                case "--rooms" -> { t.rooms = Integer.parseInt(v); i++; }
+                case "--mix" -> { t.mix = parseMix(v); i++; }
+                case "--hot-rooms" -> { t.hotRooms = Double.parseDouble(v); i++; }
+                case "--hot-share" -> { t.hotShare = Double.parseDouble(v); i++; }
+                case "--spread" -> { t.spreadDays = Integer.parseInt(v); i++; }
+                case "--journal" -> t.journal = true;
+                default -> throw new IllegalArgumentException("Unknown option " + args[i]);
+            }
+        }
+        System.exit(t.run() == 0 ? 0 : 1);
+    }
+
+    private static int[] parseMix(String s) {
+        String[] parts = s.split(",");
+        if (parts.length != 3) throw new IllegalArgumentException("--mix needs book,cancel,availability");
+        int[] m = new int[3];
+        for (int i = 0; i < 3; i++) m[i] = Integer.parseInt(parts[i].trim());
+        if (m[0] + m[1] + m[2] <= 0) throw new IllegalArgumentException("--mix must not be all zero");
+        return m;
+    }
+
+    /** Runs the soak and returns the number of double-booking violations found. */
+    private long run() throws Exception {
+        Path dir = Files.createTempDirectory("hotel-load");
+        String url = "jdbc:sqlite:" + dir.resolve("load.db");
+        PrintStream console = System.out;
+        console.printf("Load: %d clients for %ds, %d rooms, mix %d/%d/%d, %.0f%% of traffic on %.0f%% of rooms%s%n",
+                threads, durationSeconds, rooms, mix[0], mix[1], mix[2],
+                hotShare * 100, hotRooms * 100, journal ? ", journalled" : "");
+
+        long violations;
+        try {
+            long busy;
+            try (Hotel hotel = new Hotel(url, journal ? dir.resolve("load.journal") : null)) {
+                String[] types = {"Standard", "Deluxe", "Suite"};
+                for (int i = 0; i < rooms; i++)
+                    hotel.addRoom(types[i % types.length], 1000 * (1 + i % types.length));
+                hotel.metrics().reset();
+
+                System.setOut(new PrintStream(OutputStream.nullOutputStream()));   // silence per-call chatter
+                try {
+                    drive(hotel, console);
+                } finally {
+                    System.setOut(console);
+                }
+                busy = hotel.metrics().sqlBusyCount();
+            }                                       // close() drains the journal, if any
+
+            console.println();
+            console.println("Operation          count       ok  rejected  failed    ops/s   p50 us   p99 us p99.9 us   max us");
+            for (Op op : List.of(book, cancel, avail)) report(console, op);
+            console.println("SQLITE_BUSY errors: " + busy);
+            violations = countDoubleBookings(url);
+            console.println("Double-booking violations: " + violations);
+        } finally {
+            try (var files = Files.list(dir)) {
+                for (Path f : (Iterable<Path>) files::iterator) Files.deleteIfExists(f);
+            }
+            Files.deleteIfExists(dir);
+        }
+        return violations;
+    }
+
+    private void drive(Hotel hotel, PrintStream console) throws Exception {
+        int roomCount = rooms + 3;                 // Hotel seeds three default rooms
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(durationSeconds);
+        ExecutorService pool = Workers.newPerTaskExecutor();
+        List<Future<?>> clients = new ArrayList<>();
+        for (int i = 0; i < threads; i++) {
+            clients.add(pool.submit(() -> {
+                while (System.nanoTime() < deadline) step(hotel, roomCount);
+                return null;
+            }));
+        }
+
+        long started = System.nanoTime(), lastAt = started, last = 0;
+        while (System.nanoTime() < deadline) {
+            Thread.sleep(Math.min(5_000, Math.max(1, (deadline - System.nanoTime()) / 1_000_000)));
+            long now = System.nanoTime();
+            long done = book.latency.count() + cancel.latency.count() + avail.latency.count();
+            console.printf("  %3ds  %8.0f ops/s  (%d booked, %d cancellable)%n",
+                    (now - started) / 1_000_000_000,
+                    (done - last) * 1e9 / (now - lastAt), book.ok.sum(), booked.size());
+            last = done;
+            lastAt = now;
+        }
+        for (Future<?> f : clients) f.get();
+        pool.shutdown();
+    }
+
+    /** One client request, picked by the configured mix. */
+    private void step(Hotel hotel, int roomCount) {
+        ThreadLocalRandom rnd = ThreadLocalRandom.current();
+        int pick = rnd.nextInt(mix[0] + mix[1] + mix[2]);
+        LocalDate in = pickDay(rnd);
+        LocalDate out = in.plusDays(1 + rnd.nextInt(5));
+        long t0 = System.nanoTime();
+
+        if (pick < mix[0]) {
+            Reservation r = hotel.bookRoomWithReceipt("load", pickRoom(rnd, roomCount), in, out);
+            book.latency.record(System.nanoTime() - t0);
+            if (r != null) {
+                book.ok.increment();
+                booked.add(r.getId());
+            } else book.rejected.increment();
+        } else if (pick < mix[0] + mix[1]) {
+            Integer id = booked.poll();
+            if (id == null) return;                // nothing to cancel yet
+            boolean done = hotel.cancelBooking(id);
+            cancel.latency.record(System.nanoTime() - t0);
+            (done ? cancel.ok : cancel.failed).increment();    // each id is cancelled once
+        } else {
+            try {
+                if (rnd.nextBoolean()) hotel.findAvailability(in, out);
+                else hotel.findFreeRooms(null, in, out);
+                avail.latency.record(System.nanoTime() - t0);
+                avail.ok.increment();
+            } catch (RuntimeException e) {
+                avail.latency.record(System.nanoTime() - t0);
+                avail.failed.increment();
+            }
+        }
+    }
+
+    private int pickRoom(ThreadLocalRandom rnd, int roomCount) {
+        int hot = Math.max(1, (int) (roomCount * hotRooms));
+        return 1 + (rnd.nextDouble() < hotShare ? rnd.nextInt(hot) : rnd.nextInt(roomCount));
+    }
+
+    private LocalDate pickDay(ThreadLocalRandom rnd) {
+        int span = rnd.nextDouble() < hotShare ? Math.min(HOT_DAYS, spreadDays) : spreadDays;
+        return BASE.plusDays(rnd.nextInt(Math.max(1, span)));
+    }
+
+    private void report(PrintStream out, Op op) {
+        LatencyHistogram h = op.latency;
+        out.printf("%-14s %9d %8d %9d %7d %8.0f %8.1f %8.1f %8.1f %8.1f%n", op.name,
+                h.count(), op.ok.sum(), op.rejected.sum(), op.failed.sum(),
+                h.count() / (double) durationSeconds,
+                h.percentileNanos(50) / 1e3, h.percentileNanos(99) / 1e3,
+                h.percentileNanos(99.9) / 1e3, h.maxNanos() / 1e3);
+    }
+
+    /** Pairs of booked stays on the same room whose nights overlap. */
+    private static long countDoubleBookings(String url) throws SQLException {
+        String q = """
+            SELECT COUNT(*) FROM reservations a JOIN reservations b
+              ON a.room_id = b.room_id AND a.id < b.id
+             AND a.checkin_day < b.checkout_day AND b.checkin_day < a.checkout_day
+            WHERE a.status='booked' AND b.status='booked'
+        """;
+        Connection conn = DBConnection.connect(url);
+        if (conn == null) throw new SQLException("Cannot reopen " + url);
+        try (Connection c = conn;
+             Statement st = c.createStatement();
+             ResultSet rs = st.executeQuery(q)) {
+            return rs.next() ? rs.getLong(1) : 0;
+        }
+    }
+}
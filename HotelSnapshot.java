@@ -0,0 +1,150 @@
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedOutputStream;
+
+/**
+ * Binary dump of what Hotel keeps in memory: rooms, booked stays and the
+ * occupancy report's daily totals. Read back through a memory-mapped
+ * buffer, it replaces the table scans and report backfill at startup.
+ *
+ * Layout (big-endian): magic, version, token, then counted sections of
+ * rooms, stays and report cells, then a CRC32 of everything before it.
+ * The token ties a file to the database state it was taken from; Hotel
+ * keeps the live token in hotel_meta and clears it as soon as it opens.
+ */
+public final class HotelSnapshot {
+
+    private static final int MAGIC = 0x48534E50;          // "HSNP"
+    private static final int VERSION = 2;               // 2: stays carry their room type
+
+    /** Receives the contents of a valid snapshot, section by section. */
+    public interface Sink {
+        void room(Room room);
+        void stay(int id, int roomId, long inDay, long outDay, double total, String type);
+        void cell(long day, String type, long nights, double revenue);
+    }
+
+    private HotelSnapshot() { }
+
+    /** Writes a snapshot atomically: to a temp file first, then renamed over {@code file}. */
+    public static void write(Path file, long token, List<Room> rooms,
+                             Collection<RoomIntervalIndex.Stay> stays, OccupancyReport report) throws IOException {
+        Path tmp = file.resolveSibling(file.getFileName() + ".tmp");
+        CRC32 crc = new CRC32();
+        try (OutputStream raw = Files.newOutputStream(tmp);
+             DataOutputStream out = new DataOutputStream(
+                     new CheckedOutputStream(new BufferedOutputStream(raw, 1 << 16), crc))) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeLong(token);
+
+            out.writeInt(rooms.size());
+            for (Room r : rooms) {
+                out.writeInt(r.getRoomId());
+                writeString(out, r.getType());
+                out.writeDouble(r.getPrice());
+                out.writeBoolean(r.isAvailable());
+            }
+
+            // per-room checkin order makes every index insert on load an append
+            RoomIntervalIndex.Stay[] all = stays.toArray(new RoomIntervalIndex.Stay[0]);
+            Arrays.sort(all, Comparator.comparingInt((RoomIntervalIndex.Stay st) -> st.roomId)
+                                       .thenComparingLong(st -> st.inDay)
+                                       .thenComparingInt(st -> st.id));
+            out.writeInt(all.length);
+            for (RoomIntervalIndex.Stay s : all) {
+                out.writeInt(s.id);
+                out.writeInt(s.roomId);
+                out.writeLong(s.inDay);
+                out.writeLong(s.outDay);
+                out.writeDouble(s.total);
+                writeString(out, s.type);
+            }
+
+            // cells are buffered so the count can go first
+            ByteArrayOutputStream cellBytes = new ByteArrayOutputStream();
+            DataOutputStream cells = new DataOutputStream(cellBytes);
+            int[] count = new int[1];
+            report.forEachCell((day, type, nights, revenue) -> {
+                try {
+                    cells.writeLong(day);
+                    writeString(cells, type);
+                    cells.writeLong(nights);
+                    cells.writeDouble(revenue);
+                    count[0]++;
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);      // in-memory stream, cannot happen
+                }
+            });
+            out.writeInt(count[0]);
+            cellBytes.writeTo(out);
+            out.flush();
+            out.writeLong(crc.getValue());
+        }
+        Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * Feeds {@code sink} from {@code file} if it exists, passes its checksum
+     * and was taken with {@code token}; returns false, having fed nothing,
+     * when any of those fail.
+     */
+    public static boolean read(Path file, long token, Sink sink) throws IOException {
+        try (FileChannel ch = FileChannel.open(file, StandardOpenOption.READ)) {
+            if (ch.size() < 24 || ch.size() > Integer.MAX_VALUE) return false;
+            MappedByteBuffer buf = ch.map(FileChannel.MapMode.READ_ONLY, 0, ch.size());
+            int end = buf.limit() - 8;
+            CRC32 crc = new CRC32();
+            crc.update(buf.duplicate().limit(end));
+            if (crc.getValue() != buf.getLong(end)) return false;
+            if (buf.getInt() != MAGIC || buf.getInt() != VERSION || buf.getLong() != token) return false;
+            buf.limit(end);
+
+            for (int n = buf.getInt(); n > 0; n--)
+                sink.room(new Room(buf.getInt(), readString(buf), buf.getDouble(), buf.get() != 0));
+            for (int n = buf.getInt(); n > 0; n--)
+                sink.stay(buf.getInt(), buf.getInt(), buf.getLong(), buf.getLong(), buf.getDouble(),
+                          nullIfEmpty(readString(buf)));
+            for (int n = buf.getInt(); n > 0; n--)
+                sink.cell(buf.getLong(), readString(buf), buf.getLong(), buf.getDouble());
+            return true;
+        } catch (NoSuchFileException e) {
+            return false;
+        } catch (BufferUnderflowException e) {
+            throw new IOException("Truncated snapshot " + file, e);
+        }
+    }
+
+    private static void writeString(DataOutputStream out, String s) throws IOException {
+        byte[] b = (s == null ? "" : s).getBytes(StandardCharsets.UTF_8);
+        out.writeInt(b.length);
+        out.write(b);
+    }
+
+    private static String nullIfEmpty(String s) { return s.isEmpty() ? null : s; }
+
+    private static String readString(ByteBuffer buf) {
+        byte[] b = new byte[buf.getInt()];
+        buf.get(b);
+        return new String(b, StandardCharsets.UTF_8);
+    }
+}
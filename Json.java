@@ -0,0 +1,128 @@
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Minimal hand-written JSON: string escaping, the shared record shapes,
+ * and a reader for the flat objects those shapes produce.
+ */
+public final class Json {
+
+    private Json() { }
+
+    public static String quote(String s) {
+        if (s == null) return "null";
+        StringBuilder sb = new StringBuilder(s.length() + 2).append('"');
+        for (int i = 0; i < s.length(); i++) {
+            char ch = s.charAt(i);
+            switch (ch) {
+                case '"'  -> sb.append("\\\"");
+                case '\\' -> sb.append("\\\\");
+                case '\n' -> sb.append("\\n");
+                case '\r' -> sb.append("\\r");
+                case '\t' -> sb.append("\\t");
+                default -> {
+                    if (ch < 0x20) sb.append(String.format("\\u%04x", (int) ch));
+                    else sb.append(ch);
+                }
+            }
+        }
+        return sb.append('"').toString();
+    }
+
+    public static String of(Reservation r) {
+        return "{\"id\":" + r.getId()
+                + ",\"customer_name\":" + quote(r.getCustomerName())
+                + ",\"room_id\":" + r.getRoomId()
+                + ",\"checkin_date\":" + quote(r.getCheckinDate())
+                + ",\"checkout_date\":" + quote(r.getCheckoutDate())
+                + ",\"total_cost\":" + r.getTotalCost()
+                + ",\"status\":" + quote(r.getStatus()) + "}";
+    }
+
+    /**
+     * Parses one flat JSON object. Strings come back unescaped, other
+     * scalars as their literal text, null as null. Nested values are
+     * rejected with IllegalArgumentException, like any malformed input.
+     */
+    public static Map<String, String> parseObject(String s) {
+        Map<String, String> out = new LinkedHashMap<>();
+        int[] pos = {skip(s, 0)};
+        expect(s, pos, '{');
+        if (peek(s, pos) == '}') {
+            pos[0]++;
+        } else {
+            while (true) {
+                String key = readString(s, pos);
+                expect(s, pos, ':');
+                out.put(key, readScalar(s, pos));
+                char ch = peek(s, pos);
+                pos[0]++;
+                if (ch == '}') break;
+                if (ch != ',') throw new IllegalArgumentException("expected , or } at " + (pos[0] - 1));
+            }
+        }
+        if (skip(s, pos[0]) != s.length()) throw new IllegalArgumentException("trailing data at " + pos[0]);
+        return out;
+    }
+
+    private static String readScalar(String s, int[] pos) {
+        char ch = peek(s, pos);
+        if (ch == '"') return readString(s, pos);
+        if (ch == '{' || ch == '[') throw new IllegalArgumentException("nested value at " + pos[0]);
+        int start = pos[0];
+        while (pos[0] < s.length() && ",}] \t\r\n".indexOf(s.charAt(pos[0])) < 0) pos[0]++;
+        String lit = s.substring(start, pos[0]);
+        if (lit.isEmpty()) throw new IllegalArgumentException("missing value at " + start);
+        return lit.equals("null") ? null : lit;
+    }
+
+    private static String readString(String s, int[] pos) {
+        if (peek(s, pos) != '"') throw new IllegalArgumentException("expected string at " + pos[0]);
+        StringBuilder sb = new StringBuilder();
+        int i = pos[0] + 1;
+        while (true) {
+            if (i >= s.length()) throw new IllegalArgumentException("unterminated string");
+            char ch = s.charAt(i++);
+            if (ch == '"') break;
+            if (ch != '\\') { sb.append(ch); continue; }
+            if (i >= s.length()) throw new IllegalArgumentException("unterminated string");
+            char esc = s.charAt(i++);
+            switch (esc) {
+                case '"', '\\', '/' -> sb.append(esc);
+                case 'b' -> sb.append('\b');
+                case 'f' -> sb.append('\f');
+                case 'n' -> sb.append('\n');
+                case 'r' -> sb.append('\r');
+                case 't' -> sb.append('\t');
+                case 'u' -> {
+                    if (i + 4 > s.length()) throw new IllegalArgumentException("bad \\u escape");
+                    try {
+                        sb.append((char) Integer.parseInt(s.substring(i, i + 4), 16));
+                    } catch (NumberFormatException e) {
+                        throw new IllegalArgumentException("bad \\u escape");
+                    }
+                    i += 4;
+                }
+                default -> throw new IllegalArgumentException("bad escape \\" + esc);
+            }
+        }
+        pos[0] = i;
+        return sb.toString();
+    }
+
+    private static void expect(String s, int[] pos, char want) {
+        if (peek(s, pos) != want) throw new IllegalArgumentException("expected " + want + " at " + pos[0]);
+        pos[0]++;
+    }
+
+    /** Next non-blank char (advancing past the blanks), or 0 at end of input. */
+    private static char peek(String s, int[] pos) {
+        pos[0] = skip(s, pos[0]);
+        return pos[0] < s.length() ? s.charAt(pos[0]) : 0;
+    }
+
+    private static int skip(String s, int i) {
+        while (i < s.length() && Character.isWhitespace(s.charAt(i))) i++;
+        return i;
+    }
+}
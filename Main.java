@@ -1,16 +1,125 @@
+import java.io.IOException;
+import java.nio.file.Path;
 import java.time.LocalDate;
 import java.time.format.DateTimeFormatter;
 import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 import java.util.Scanner;
+import java.util.TreeMap;
 
 public class Main {
 
     private static final DateTimeFormatter INPUT_FMT =
             DateTimeFormatter.ofPattern("dd-MM-yyyy");
+    private static final int PAGE_SIZE = 20;
+    private static final String METRICS_FILE = "hotel-metrics.txt";
 
+    /** Asks for optional status / room filters; blank answers match everything. */
+    private static BookingQuery readBookingFilter(Scanner scanner) {
+        BookingQuery q = BookingQuery.all();
+        System.out.print("Status filter (booked/cancelled, blank = all): ");
+        String status = scanner.nextLine().trim();
+        if (!status.isEmpty()) q.status(status.toLowerCase());
+        System.out.print("Room ID filter (blank = all): ");
+        String room = scanner.nextLine().trim();
+        if (!room.isEmpty()) q.room(Integer.parseInt(room));
+        return q;
+    }
+
+    /**
+     * Console menu by default. {@code --http [port]} serves the HTTP API
+     * instead; add {@code --console} to run both. {@code --journal [file]}
+     * acknowledges writes from a group-commit journal. {@code --property id}
+     * works on hotel-<id>.db; {@code --properties a,b,c} opens every listed
+     * property for chain-wide searches. {@code --snapshot [file]} saves
+     * in-memory state on exit and warms up from it on the next start.
+     * Journal and snapshot default to hotel-<id>.journal/.snapshot for a
+     * property, and always use those names for each property of a chain.
+     * Metrics go to hotel-metrics.txt, or hotel-<id>-metrics.txt for each
+     * property of a chain.
+     */
     public static void main(String[] args) {
-        Hotel hotel = new Hotel();
+        int httpPort = -1;
+        boolean withConsole = false;
+        boolean journalled = false, snapshots = false;
+        Path journal = null;
+        Path snapshot = null;
+        String property = null;
+        List<String> chainIds = null;
+        for (int i = 0; i < args.length; i++) {
+            if (args[i].equals("--http")) {
+                httpPort = i + 1 < args.length && args[i + 1].matches("\\d+")
+                        ? Integer.parseInt(args[++i]) : 8080;
+            } else if (args[i].equals("--console")) {
+                withConsole = true;
+            } else if (args[i].equals("--journal")) {
+                journalled = true;
+                if (i + 1 < args.length && !args[i + 1].startsWith("--")) journal = Path.of(args[++i]);
+            } else if (args[i].equals("--snapshot")) {
+                snapshots = true;
+                if (i + 1 < args.length && !args[i + 1].startsWith("--")) snapshot = Path.of(args[++i]);
+            } else if (args[i].equals("--property") && i + 1 < args.length) {
+                property = args[++i];
+            } else if (args[i].equals("--properties") && i + 1 < args.length) {
+                chainIds = new ArrayList<>(List.of(args[++i].split(",")));
+            }
+        }
+
+        HotelChain chain = null;
+        Hotel hotel;
+        try {
+            if (chainIds != null) {
+                if (property == null) property = chainIds.get(0);
+                else if (!chainIds.contains(property)) chainIds.add(property);
+                if (journal != null || snapshot != null)
+                    System.out.println("Each property uses its own hotel-<id>.journal/.snapshot; file names given are ignored.");
+                chain = new HotelChain(chainIds, journalled, snapshots);
+                hotel = chain.property(property);
+            } else {
+                if (journalled && journal == null)
+                    journal = property == null ? Path.of("hotel.journal") : HotelChain.journalFor(property);
+                if (snapshots && snapshot == null)
+                    snapshot = property == null ? Path.of("hotel.snapshot") : HotelChain.snapshotFor(property);
+                hotel = new Hotel(property == null ? DBConnection.URL : DBConnection.urlFor(property), journal, snapshot);
+            }
+        } catch (IllegalStateException e) {           // e.g. the database is open elsewhere
+            System.out.println("Cannot open the hotel: " + e.getMessage());
+            return;
+        }
+        Runnable shutdown = chain != null ? chain::close : hotel::close;
+        if (chain != null) {
+            for (String id : chain.properties())
+                chain.property(id).metrics().startPeriodicDump(HotelChain.metricsFileFor(id), 60);
+        } else {
+            hotel.metrics().startPeriodicDump(Path.of(METRICS_FILE), 60);
+        }
+
+        HotelHttpServer server = null;
+        if (httpPort >= 0) {
+            try {
+                server = new HotelHttpServer(hotel, httpPort);
+                server.start();
+                System.out.println("HTTP API listening on http://localhost:" + server.port() + "/");
+            } catch (IOException e) {
+                System.out.println("Could not start HTTP server: " + e.getMessage());
+                shutdown.run();
+                return;
+            }
+        }
+        // the only place that closes on exit, whether from the menu, Ctrl-C or a signal
+        HotelHttpServer http = server;
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            if (http != null) http.close();
+            shutdown.run();
+        }));
+        if (http != null && !withConsole) return;  // the server threads keep the JVM alive
+
+        runConsole(hotel, chain);
+    }
+
+    private static void runConsole(Hotel hotel, HotelChain chain) {
         Scanner scanner = new Scanner(System.in);
 
         while (true) {
@@ -21,6 +130,17 @@ public class Main {
             System.out.println("4. Cancel Reservation");
             System.out.println("5. View All Bookings");
             System.out.println("6. View Room Schedule (all bookings)");
+            System.out.println("7. Import Reservations from CSV / NDJSON");
+            System.out.println("8. Export Bookings to File");
+            System.out.println("9. View Performance Metrics");
+            System.out.println("10. Find Any Free Room by Type");
+            System.out.println("11. Add a Room (admin)");
+            System.out.println("12. Update Room Type/Price (admin)");
+            System.out.println("13. Occupancy & Revenue Report");
+            System.out.println("14. Find Free Rooms Across All Properties");
+            System.out.println("15. Archive Cancelled & Past Bookings (admin)");
+            System.out.println("16. Booking History (incl. archive)");
+            System.out.println("17. View Bookings Across All Properties");
             System.out.println("0. Exit");
             System.out.print("Enter your choice: ");
             String choice = scanner.nextLine().trim();
@@ -116,12 +236,276 @@ public class Main {
                 /* -------------------------------------------------- */
                 /* 5) View all bookings                               */
                 /* -------------------------------------------------- */
-                case "5" -> hotel.viewAllBookings();
+                case "5" -> {
+                    try {
+                        BookingQuery q = readBookingFilter(scanner);
+                        System.out.println("ID | Name | Room | Checkin | Checkout | Cost | Status");
+                        BookingPage page = hotel.findBookings(q, 0, PAGE_SIZE);
+                        hotel.printBookings(page.getRows());
+                        while (page.hasMore()) {
+                            System.out.print("-- Enter for more, q to stop: ");
+                            if (scanner.nextLine().trim().equalsIgnoreCase("q")) break;
+                            page = hotel.findBookings(q, page.getNextAfterId(), PAGE_SIZE);
+                            hotel.printBookings(page.getRows());
+                        }
+                    } catch (NumberFormatException e) {
+                        System.out.println("Invalid room ID.");
+                    }
+                }
 
                 /* -------------------------------------------------- */
                 /* 6) View full room schedule (all bookings)          */
                 /* -------------------------------------------------- */
-                case "6" -> hotel.showRoomSchedule();
+                case "6" -> {
+                    try {
+                        System.out.print("From date (DD‑MM‑YYYY, blank = all): ");
+                        String from = scanner.nextLine().trim();
+                        System.out.print("To date (DD‑MM‑YYYY, blank = all): ");
+                        String to = scanner.nextLine().trim();
+                        hotel.showRoomSchedule(from.isEmpty() ? null : LocalDate.parse(from, INPUT_FMT),
+                                               to.isEmpty() ? null : LocalDate.parse(to, INPUT_FMT));
+                    } catch (DateTimeParseException e) {
+                        System.out.println("Invalid date format.");
+                    }
+                }
+
+                /* -------------------------------------------------- */
+                /* 7) Bulk import reservations from CSV / NDJSON      */
+                /* -------------------------------------------------- */
+                case "7" -> {
+                    System.out.print("CSV or .ndjson file (customer_name,room_id,checkin,checkout): ");
+                    String file = scanner.nextLine().trim();
+                    try {
+                        List<BookingResult> results = ReservationImporter.importFile(hotel, Path.of(file));
+                        long ok = results.stream().filter(BookingResult::isAccepted).count();
+                        System.out.println("Imported " + ok + " of " + results.size() + " rows.");
+                        results.stream().filter(r -> !r.isAccepted()).limit(20)
+                               .forEach(System.out::println);
+                    } catch (IOException e) {
+                        System.out.println("Could not read file: " + e.getMessage());
+                    }
+                }
+
+                /* -------------------------------------------------- */
+                /* 8) Stream bookings to a CSV / NDJSON file          */
+                /* -------------------------------------------------- */
+                case "8" -> {
+                    try {
+                        BookingQuery q = readBookingFilter(scanner);
+                        System.out.print("Output file: ");
+                        String file = scanner.nextLine().trim();
+                        System.out.print("Format (csv/ndjson): ");
+                        ExportFormat format = scanner.nextLine().trim().equalsIgnoreCase("ndjson")
+                                ? ExportFormat.NDJSON : ExportFormat.CSV;
+                        long n = hotel.exportBookings(q, Path.of(file), format);
+                        System.out.println("Exported " + n + " bookings to " + file);
+                    } catch (NumberFormatException e) {
+                        System.out.println("Invalid room ID.");
+                    } catch (IOException e) {
+                        System.out.println("Export failed: " + e.getMessage());
+                    }
+                }
+
+                /* -------------------------------------------------- */
+                /* 9) Latency histograms and outcome counters         */
+                /* -------------------------------------------------- */
+                case "9" -> {
+                    if (chain == null) {
+                        System.out.print(hotel.metrics().report());
+                        System.out.println("(also written every minute to " + METRICS_FILE + ")");
+                    } else {
+                        for (String id : chain.properties()) {
+                            System.out.println("=== " + id + " ===");
+                            System.out.print(chain.property(id).metrics().report());
+                        }
+                        System.out.println("(also written every minute to hotel-<id>-metrics.txt)");
+                    }
+                }
+
+                /* -------------------------------------------------- */
+                /* 10) Any free room of a type, cheapest first        */
+                /* -------------------------------------------------- */
+                case "10" -> {
+                    try {
+                        System.out.print("Room type (Standard/Deluxe/Suite, blank = any): ");
+                        String type = scanner.nextLine().trim();
+                        System.out.print("Check‑in date (DD‑MM‑YYYY): ");
+                        LocalDate in = LocalDate.parse(scanner.nextLine().trim(), INPUT_FMT);
+                        System.out.print("Check‑out date (DD‑MM‑YYYY): ");
+                        LocalDate out = LocalDate.parse(scanner.nextLine().trim(), INPUT_FMT);
+                        if (!out.isAfter(in)) {
+                            System.out.println("Check‑out must be after check‑in.");
+                            break;
+                        }
+                        List<Room> free = hotel.findFreeRooms(type.isEmpty() ? null : type, in, out);
+                        if (free.isEmpty()) System.out.println("No matching rooms free for those dates.");
+                        else {
+                            System.out.println("Room ID | Type | Price | Availability");
+                            free.forEach(r -> System.out.println(new Room(r.getRoomId(), r.getType(), r.getPrice(), true)));
+                        }
+                    } catch (DateTimeParseException e) {
+                        System.out.println("Invalid date format.");
+                    }
+                }
+
+                /* -------------------------------------------------- */
+                /* 11) Admin: add a room                              */
+                /* -------------------------------------------------- */
+                case "11" -> {
+                    try {
+                        System.out.print("Room type: ");
+                        String type = scanner.nextLine().trim();
+                        System.out.print("Price per night: ");
+                        double price = Double.parseDouble(scanner.nextLine().trim());
+                        Room room = hotel.addRoom(type, price);
+                        System.out.println(room == null ? "? Could not add room." : "✓ Added room " + room);
+                    } catch (NumberFormatException e) {
+                        System.out.println("Invalid price.");
+                    }
+                }
+
+                /* -------------------------------------------------- */
+                /* 12) Admin: change a room's type / price            */
+                /* -------------------------------------------------- */
+                case "12" -> {
+                    try {
+                        System.out.print("Room ID: ");
+                        int roomId = Integer.parseInt(scanner.nextLine().trim());
+                        System.out.print("New room type: ");
+                        String type = scanner.nextLine().trim();
+                        System.out.print("New price per night: ");
+                        double price = Double.parseDouble(scanner.nextLine().trim());
+                        System.out.println(hotel.updateRoom(roomId, type, price)
+                                ? "✓ Room updated." : "? Room not found or update failed.");
+                    } catch (NumberFormatException e) {
+                        System.out.println("Invalid room ID or price.");
+                    }
+                }
+
+                /* -------------------------------------------------- */
+                /* 13) Daily occupancy and revenue per room type      */
+                /* -------------------------------------------------- */
+                case "13" -> {
+                    try {
+                        System.out.print("From date (DD‑MM‑YYYY): ");
+                        LocalDate from = LocalDate.parse(scanner.nextLine().trim(), INPUT_FMT);
+                        System.out.print("To date, exclusive (DD‑MM‑YYYY): ");
+                        LocalDate to = LocalDate.parse(scanner.nextLine().trim(), INPUT_FMT);
+                        if (!to.isAfter(from)) {
+                            System.out.println("To date must be after from date.");
+                            break;
+                        }
+                        System.out.println("Date | Type | Occupied | Rooms | Occupancy | Revenue");
+                        Map<String, Double> revenue = new TreeMap<>();
+                        for (OccupancyReport.Row r : hotel.occupancyReport(from, to)) {
+                            System.out.printf("%s | %s | %d | %d | %.0f%% | Rs.%.0f%n",
+                                    r.getDay().format(INPUT_FMT), r.getType(), r.getOccupied(),
+                                    r.getRooms(), r.getOccupancyRate() * 100, r.getRevenue());
+                            revenue.merge(r.getType(), r.getRevenue(), Double::sum);
+                        }
+                        revenue.forEach((type, rs) -> System.out.printf("Total %s revenue: Rs.%.0f%n", type, rs));
+                    } catch (DateTimeParseException e) {
+                        System.out.println("Invalid date format.");
+                    }
+                }
+
+                /* -------------------------------------------------- */
+                /* 14) Chain-wide free-room search                    */
+                /* -------------------------------------------------- */
+                case "14" -> {
+                    if (chain == null) {
+                        System.out.println("Start with --properties a,b,... to search across properties.");
+                        break;
+                    }
+                    try {
+                        System.out.print("Room type (blank = any): ");
+                        String type = scanner.nextLine().trim();
+                        System.out.print("Check‑in date (DD‑MM‑YYYY): ");
+                        LocalDate in = LocalDate.parse(scanner.nextLine().trim(), INPUT_FMT);
+                        System.out.print("Check‑out date (DD‑MM‑YYYY): ");
+                        LocalDate out = LocalDate.parse(scanner.nextLine().trim(), INPUT_FMT);
+                        if (!out.isAfter(in)) {
+                            System.out.println("Check‑out must be after check‑in.");
+                            break;
+                        }
+                        List<PropertyRoom> free = chain.findFreeRooms(type.isEmpty() ? null : type, in, out);
+                        if (free.isEmpty()) System.out.println("No matching rooms free at any property.");
+                        else {
+                            System.out.println("Property | Room ID | Type | Price");
+                            free.forEach(p -> System.out.printf("%s | %d | %s | Rs.%.0f%n", p.getProperty(),
+                                    p.getRoom().getRoomId(), p.getRoom().getType(), p.getRoom().getPrice()));
+                        }
+                    } catch (DateTimeParseException e) {
+                        System.out.println("Invalid date format.");
+                    }
+                }
+
+                /* -------------------------------------------------- */
+                /* 15) Move cancelled / checked-out rows to archive   */
+                /* -------------------------------------------------- */
+                case "15" -> {
+                    try {
+                        System.out.print("Archive stays that checked out before (DD‑MM‑YYYY, blank = today): ");
+                        String s = scanner.nextLine().trim();
+                        LocalDate cutoff = s.isEmpty() ? LocalDate.now() : LocalDate.parse(s, INPUT_FMT);
+                        long n = hotel.archive(cutoff);
+                        if (n >= 0) System.out.println("Archived " + n + " bookings.");
+                    } catch (DateTimeParseException e) {
+                        System.out.println("Invalid date format.");
+                    }
+                }
+
+                /* -------------------------------------------------- */
+                /* 16) Look up bookings in hot table and archive      */
+                /* -------------------------------------------------- */
+                case "16" -> {
+                    try {
+                        System.out.print("Reservation ID (blank = search): ");
+                        String s = scanner.nextLine().trim();
+                        System.out.println("ID | Name | Room | Checkin | Checkout | Cost | Status");
+                        if (!s.isEmpty()) {
+                            Reservation r = hotel.findBooking(Integer.parseInt(s));
+                            if (r == null) System.out.println("No reservation with that ID.");
+                            else hotel.printBookings(List.of(r));
+                            break;
+                        }
+                        BookingQuery q = readBookingFilter(scanner);
+                        BookingPage page = hotel.findHistory(q, 0, PAGE_SIZE);
+                        hotel.printBookings(page.getRows());
+                        while (page.hasMore()) {
+                            System.out.print("-- Enter for more, q to stop: ");
+                            if (scanner.nextLine().trim().equalsIgnoreCase("q")) break;
+                            page = hotel.findHistory(q, page.getNextAfterId(), PAGE_SIZE);
+                            hotel.printBookings(page.getRows());
+                        }
+                    } catch (NumberFormatException e) {
+                        System.out.println("Invalid ID.");
+                    }
+                }
+
+                /* -------------------------------------------------- */
+                /* 17) Bookings of every property, merged by ID       */
+                /* -------------------------------------------------- */
+                case "17" -> {
+                    if (chain == null) {
+                        System.out.println("Start with --properties a,b,... to list bookings across properties.");
+                        break;
+                    }
+                    try {
+                        BookingQuery q = readBookingFilter(scanner);
+                        System.out.println("Property | ID | Name | Room | Checkin | Checkout | Cost | Status");
+                        ChainBookingPage page = chain.findBookings(q, Map.of(), PAGE_SIZE);
+                        printChainBookings(page);
+                        while (page.hasMore()) {
+                            System.out.print("-- Enter for more, q to stop: ");
+                            if (scanner.nextLine().trim().equalsIgnoreCase("q")) break;
+                            page = chain.findBookings(q, page.getNextAfterIds(), PAGE_SIZE);
+                            printChainBookings(page);
+                        }
+                    } catch (NumberFormatException e) {
+                        System.out.println("Invalid room ID.");
+                    }
+                }
 
                 /* -------------------------------------------------- */
                 /* 0) Exit                                            */
@@ -129,11 +513,20 @@ public class Main {
                 case "0" -> {
                     System.out.println("Thank you for choosing our Hotel Reservation System. Have a great day!");
                     scanner.close();
-                    return;
+                    System.exit(0);                // the shutdown hook stops the server and closes the hotel
                 }
 
                 default -> System.out.println("Invalid choice.");
             }
         }
     }
+
+    private static void printChainBookings(ChainBookingPage page) {
+        for (PropertyBooking b : page.getRows()) {
+            Reservation r = b.getReservation();
+            System.out.printf("%s | %d | %s | %d | %s | %s | Rs.%.0f | %s%n", b.getProperty(),
+                    r.getId(), r.getCustomerName(), r.getRoomId(), r.getCheckinDate(),
+                    r.getCheckoutDate(), r.getTotalCost(), r.getStatus());
+        }
+    }
 }
@@ -0,0 +1,120 @@
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Per-operation and per-SQL-statement latency histograms and outcome
+ * counters. Recording is a few lock-free increments, cheap enough to
+ * leave on all the time.
+ */
+public class Metrics {
+
+    public enum Outcome { SUCCESS, CONFLICT, ERROR }
+
+    /** Latency plus outcome counts for one operation or statement. */
+    public static final class Stats {
+        public final LatencyHistogram latency = new LatencyHistogram();
+        public final LongAdder success = new LongAdder();
+        public final LongAdder conflict = new LongAdder();
+        public final LongAdder error = new LongAdder();
+    }
+
+    private final Map<String, Stats> ops = new ConcurrentHashMap<>();
+    private final Map<String, Stats> sql = new ConcurrentHashMap<>();
+    private final LongAdder sqlBusy = new LongAdder();
+    private ScheduledExecutorService dumper;
+
+    public void record(String op, long startNanos, Outcome outcome) {
+        add(ops.computeIfAbsent(op, k -> new Stats()), startNanos, outcome);
+    }
+
+    public void recordSql(String statement, long startNanos, Throwable failure) {
+        Stats s = sql.computeIfAbsent(statement, k -> new Stats());
+        add(s, startNanos, failure == null ? Outcome.SUCCESS : Outcome.ERROR);
+        if (failure != null && String.valueOf(failure.getMessage()).contains("SQLITE_BUSY"))
+            sqlBusy.increment();
+    }
+
+    private static void add(Stats s, long startNanos, Outcome outcome) {
+        s.latency.record(System.nanoTime() - startNanos);
+        switch (outcome) {
+            case SUCCESS -> s.success.increment();
+            case CONFLICT -> s.conflict.increment();
+            case ERROR -> s.error.increment();
+        }
+    }
+
+    public long sqlBusyCount()   { return sqlBusy.sum(); }
+
+    public void reset() {
+        ops.clear();
+        sql.clear();
+        sqlBusy.reset();
+    }
+
+    public String report() {
+        StringBuilder sb = new StringBuilder();
+        sb.append("Metrics at ").append(LocalDateTime.now().withNano(0)).append('\n');
+        section(sb, "Operation", ops);
+        section(sb, "SQL statement", sql);
+        sb.append("SQLITE_BUSY errors: ").append(sqlBusy.sum()).append('\n');
+        return sb.toString();
+    }
+
+    private static void section(StringBuilder sb, String title, Map<String, Stats> map) {
+        sb.append(String.format("%-40s %8s %8s %8s %6s %9s %9s %9s %9s%n", title,
+                "count", "ok", "conflict", "error", "p50 us", "p90 us", "p99 us", "max us"));
+        for (Map.Entry<String, Stats> e : new TreeMap<>(map).entrySet()) {
+            Stats s = e.getValue();
+            LatencyHistogram h = s.latency;
+            sb.append(String.format("%-40s %8d %8d %8d %6d %9.1f %9.1f %9.1f %9.1f%n",
+                    abbreviate(e.getKey()), h.count(), s.success.sum(), s.conflict.sum(), s.error.sum(),
+                    h.percentileNanos(50) / 1e3, h.percentileNanos(90) / 1e3,
+                    h.percentileNanos(99) / 1e3, h.maxNanos() / 1e3));
+        }
+    }
+
+    private static String abbreviate(String s) {
+        s = s.replaceAll("\\s+", " ").trim();
+        return s.length() <= 40 ? s : s.substring(0, 37) + "...";
+    }
+
+    /** Writes report() to {@code file}, replacing it atomically. */
+    public void writeTo(Path file) throws IOException {
+        Path tmp = file.resolveSibling(file.getFileName() + ".tmp");
+        Files.writeString(tmp, report(), StandardCharsets.UTF_8);
+        Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /** Rewrites {@code file} every {@code periodSeconds} on a daemon thread until close(). */
+    public synchronized void startPeriodicDump(Path file, long periodSeconds) {
+        if (dumper != null) return;
+        dumper = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "metrics-dump");
+            t.setDaemon(true);
+            return t;
+        });
+        dumper.scheduleAtFixedRate(() -> {
+            try {
+                writeTo(file);
+            } catch (IOException e) {
+                System.out.println("Metrics dump error: " + e.getMessage());
+            }
+        }, periodSeconds, periodSeconds, TimeUnit.SECONDS);
+    }
+
+    public synchronized void close() {
+        if (dumper != null) dumper.shutdown();
+        dumper = null;
+    }
+}
@@ -0,0 +1,163 @@
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Day-granularity occupancy bitmaps: one bit per room per night over a
+ * fixed horizon, grouped by room type. "Any free Deluxe from X to Y" is a
+ * word-wise scan of each Deluxe room's bits for the range, with rooms kept
+ * in price order so the cheapest come first. A 2-year horizon costs about
+ * 100 bytes per room.
+ *
+ * The bits form a ring: night d lives at bit floorMod(d, days), so moving
+ * the horizon forward only clears the nights that fall off the front and
+ * reuses them for the far end.
+ */
+public class OccupancyCalendar {
+
+    private static final class RoomDays {
+        final Room room;
+        final AtomicLongArray bits;     // handed on to the entry that replaces this one
+
+        RoomDays(Room room, AtomicLongArray bits) {
+            this.room = room;
+            this.bits = bits;
+        }
+    }
+
+    private volatile long firstDay;
+    private final int days;                               // a multiple of 64
+    private final Map<Integer, RoomDays> byId = new ConcurrentHashMap<>();
+    private final Map<String, List<RoomDays>> byType = new ConcurrentHashMap<>();
+
+    /** Tracks nights from {@code first} (inclusive) for at least {@code days} days. */
+    public OccupancyCalendar(LocalDate first, int days) {
+        this.firstDay = first.toEpochDay();
+        this.days = (days + 63) & ~63;
+    }
+
+    private static String key(String type) {
+        return type == null ? "" : type.toLowerCase(Locale.ROOT);
+    }
+
+    public void addRoom(Room room) {
+        RoomDays old = byId.get(room.getRoomId());
+        // a type or price change keeps the same bits, so concurrent book/release are not lost
+        RoomDays rd = new RoomDays(room, old != null ? old.bits : new AtomicLongArray(days / 64));
+        if (old != null)
+            byType.computeIfPresent(key(old.room.getType()), (k, list) -> without(list, old));
+        byId.put(room.getRoomId(), rd);
+        // readers see either the old or the new sorted list, never a half-built one
+        byType.compute(key(room.getType()), (k, list) -> {
+            List<RoomDays> next = new ArrayList<>(list == null ? List.of() : list);
+            next.add(rd);
+            next.sort(Comparator.comparingDouble((RoomDays r) -> r.room.getPrice())
+                                .thenComparingInt(r -> r.room.getRoomId()));
+            return List.copyOf(next);
+        });
+    }
+
+    private static List<RoomDays> without(List<RoomDays> list, RoomDays rd) {
+        List<RoomDays> next = new ArrayList<>(list);
+        next.remove(rd);
+        return List.copyOf(next);
+    }
+
+    /** True when every night of [in, out) lies inside the horizon. */
+    public boolean covers(long inDay, long outDay) {
+        long first = firstDay;
+        return inDay >= first && outDay <= first + days;
+    }
+
+    public long firstDay() { return firstDay; }
+
+    /** First night past the horizon. */
+    public long endDay() { return firstDay + days; }
+
+    /**
+     * Moves the start of the horizon forward to {@code first}, clearing the
+     * nights that drop off the front. Returns the night from which the far
+     * end is new: those nights start out free, and the caller books the
+     * stays that already exist there. Moving backwards does nothing.
+     */
+    public synchronized long advanceTo(LocalDate first) {
+        long oldFirst = firstDay, newFirst = first.toEpochDay();
+        long oldEnd = oldFirst + days;
+        if (newFirst <= oldFirst) return oldEnd;
+        long clearTo = Math.min(newFirst, oldEnd);
+        for (RoomDays rd : byId.values()) setBits(rd, oldFirst, clearTo, false);
+        firstDay = newFirst;
+        return Math.max(oldEnd, newFirst);
+    }
+
+    public void book(int roomId, long inDay, long outDay)   { apply(roomId, inDay, outDay, true); }
+    public void release(int roomId, long inDay, long outDay) { apply(roomId, inDay, outDay, false); }
+
+    private void apply(int roomId, long inDay, long outDay, boolean set) {
+        RoomDays rd = byId.get(roomId);
+        if (rd == null) return;
+        long first = firstDay;
+        setBits(rd, Math.max(inDay, first), Math.min(outDay, first + days), set);
+    }
+
+    /** Sets or clears nights [from, to), which must span at most {@code days}. */
+    private void setBits(RoomDays rd, long from, long to, boolean set) {
+        while (from < to) {
+            int pos = (int) Math.floorMod(from, (long) days);
+            int n = (int) Math.min(to - from, 64 - (pos & 63));      // up to the end of this word
+            long mask = mask(pos, n);
+            if (set) rd.bits.getAndAccumulate(pos >>> 6, mask, (a, b) -> a | b);
+            else rd.bits.getAndAccumulate(pos >>> 6, ~mask, (a, b) -> a & b);
+            from += n;
+        }
+    }
+
+    /** {@code n} bits from bit {@code pos}, within the word holding {@code pos}. */
+    private static long mask(int pos, int n) {
+        return (n == 64 ? -1L : (1L << n) - 1) << (pos & 63);
+    }
+
+    private boolean isFree(RoomDays rd, long inDay, long outDay) {
+        for (long from = inDay; from < outDay; ) {
+            int pos = (int) Math.floorMod(from, (long) days);
+            int n = (int) Math.min(outDay - from, 64 - (pos & 63));
+            if ((rd.bits.get(pos >>> 6) & mask(pos, n)) != 0) return false;
+            from += n;
+        }
+        return true;
+    }
+
+    /**
+     * Rooms of {@code type} (any type when null) free for every night of
+     * [in, out), cheapest first. The range must lie within the horizon.
+     */
+    public List<Room> findFree(String type, long inDay, long outDay) {
+        List<Room> free = new ArrayList<>();
+        if (type == null) {
+            for (RoomDays rd : byId.values())
+                if (isFree(rd, inDay, outDay)) free.add(rd.room);
+            free.sort(Comparator.comparingDouble(Room::getPrice).thenComparingInt(Room::getRoomId));
+        } else {
+            for (RoomDays rd : byType.getOrDefault(key(type), List.of()))
+                if (isFree(rd, inDay, outDay)) free.add(rd.room);
+        }
+        return free;
+    }
+
+    /** Rooms of {@code type} (any when null), cheapest first. */
+    public List<Room> rooms(String type) {
+        List<Room> list = new ArrayList<>();
+        if (type == null) {
+            for (RoomDays rd : byId.values()) list.add(rd.room);
+            list.sort(Comparator.comparingDouble(Room::getPrice).thenComparingInt(Room::getRoomId));
+        } else {
+            for (RoomDays rd : byType.getOrDefault(key(type), List.of())) list.add(rd.room);
+        }
+        return list;
+    }
+}
@@ -0,0 +1,140 @@
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.DoubleAdder;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Running per-day, per-room-type totals of occupied rooms and revenue.
+ * Each booked night adds one room and its share of the stay's cost to
+ * its day; a cancellation subtracts the same amounts. Reports read the
+ * counters directly, so they cost the same however long the history is.
+ */
+public class OccupancyReport {
+
+    /** One day of one room type. */
+    public static final class Row {
+        private final LocalDate day;
+        private final String type;
+        private final long occupied;
+        private final int rooms;
+        private final double revenue;
+
+        Row(LocalDate day, String type, long occupied, int rooms, double revenue) {
+            this.day = day;
+            this.type = type;
+            this.occupied = occupied;
+            this.rooms = rooms;
+            this.revenue = revenue;
+        }
+
+        public LocalDate getDay()   { return day; }
+        public String getType()     { return type; }
+        public long getOccupied()   { return occupied; }
+        public int getRooms()       { return rooms; }
+        public double getRevenue()  { return revenue; }
+        public double getOccupancyRate() { return rooms == 0 ? 0 : (double) occupied / rooms; }
+    }
+
+    private static final class Cell {
+        final LongAdder nights = new LongAdder();
+        final DoubleAdder revenue = new DoubleAdder();
+    }
+
+    // epoch day -> room type -> totals
+    private final Map<Long, Map<String, Cell>> days = new ConcurrentHashMap<>();
+
+    public void add(String type, long inDay, long outDay, double total)    { apply(type, inDay, outDay, total, 1); }
+    public void remove(String type, long inDay, long outDay, double total) { apply(type, inDay, outDay, total, -1); }
+
+    private void apply(String type, long inDay, long outDay, double total, int sign) {
+        long nights = outDay - inDay;
+        if (nights <= 0) return;
+        double perNight = total / nights;
+        for (long d = inDay; d < outDay; d++) {
+            Cell c = days.computeIfAbsent(d, k -> new ConcurrentHashMap<>())
+                         .computeIfAbsent(type, k -> new Cell());
+            c.nights.add(sign);
+            c.revenue.add(sign * perNight);
+        }
+    }
+
+    /**
+     * Adds many stays using the common fork/join pool. The arrays are
+     * parallel: stay i is types[i] from inDays[i] to outDays[i] costing totals[i].
+     */
+    public void backfill(String[] types, long[] inDays, long[] outDays, double[] totals) {
+        ForkJoinPool.commonPool().invoke(new Backfill(types, inDays, outDays, totals, 0, types.length));
+    }
+
+    private final class Backfill extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+        private static final int LEAF = 2048;
+        private final String[] types;
+        private final long[] inDays, outDays;
+        private final double[] totals;
+        private final int from, to;
+
+        Backfill(String[] types, long[] inDays, long[] outDays, double[] totals, int from, int to) {
+            this.types = types;
+            this.inDays = inDays;
+            this.outDays = outDays;
+            this.totals = totals;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= LEAF) {
+                for (int i = from; i < to; i++)
+                    if (types[i] != null) add(types[i], inDays[i], outDays[i], totals[i]);
+                return;
+            }
+            int mid = (from + to) >>> 1;
+            invokeAll(new Backfill(types, inDays, outDays, totals, from, mid),
+                      new Backfill(types, inDays, outDays, totals, mid, to));
+        }
+    }
+
+    /** Visits raw totals, e.g. to persist them. */
+    public interface CellVisitor {
+        void cell(long day, String type, long nights, double revenue);
+    }
+
+    /** Every non-empty day/type total, in no particular order. */
+    public void forEachCell(CellVisitor v) {
+        days.forEach((day, cells) -> cells.forEach((type, c) -> {
+            long nights = c.nights.sum();
+            if (nights != 0) v.cell(day, type, nights, c.revenue.sum());
+        }));
+    }
+
+    /** Adds previously persisted totals for one day and type. */
+    public void restore(long day, String type, long nights, double revenue) {
+        Cell c = days.computeIfAbsent(day, k -> new ConcurrentHashMap<>())
+                     .computeIfAbsent(type, k -> new Cell());
+        c.nights.add(nights);
+        c.revenue.add(revenue);
+    }
+
+    /** One row per day and room type over [from, to); roomsByType gives each type's capacity. */
+    public List<Row> rows(LocalDate from, LocalDate to, Map<String, Integer> roomsByType) {
+        List<Row> rows = new ArrayList<>();
+        for (long d = from.toEpochDay(); d < to.toEpochDay(); d++) {
+            Map<String, Cell> cells = days.getOrDefault(d, Map.of());
+            for (Map.Entry<String, Integer> t : new TreeMap<>(roomsByType).entrySet()) {
+                Cell c = cells.get(t.getKey());
+                rows.add(new Row(LocalDate.ofEpochDay(d), t.getKey(),
+                        c == null ? 0 : c.nights.sum(), t.getValue(),
+                        c == null ? 0 : c.revenue.sum()));
+            }
+        }
+        return rows;
+    }
+}
@@ -0,0 +1,18 @@
+/** A reservation tagged with the property it belongs to, for chain-wide results. */
+public class PropertyBooking {
+    private final String property;
+    private final Reservation reservation;
+
+    public PropertyBooking(String property, Reservation reservation) {
+        this.property = property;
+        this.reservation = reservation;
+    }
+
+    public String getProperty()          { return property; }
+    public Reservation getReservation()  { return reservation; }
+
+    @Override
+    public String toString() {
+        return property + " | " + reservation;
+    }
+}
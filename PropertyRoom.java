@@ -0,0 +1,18 @@
+/** A room tagged with the property it belongs to, for chain-wide results. */
+public class PropertyRoom {
+    private final String property;
+    private final Room room;
+
+    public PropertyRoom(String property, Room room) {
+        this.property = property;
+        this.room = room;
+    }
+
+    public String getProperty() { return property; }
+    public Room getRoom()       { return room; }
+
+    @Override
+    public String toString() {
+        return property + " | " + room;
+    }
+}
@@ -6,6 +6,7 @@ public class Reservation {
     private String checkoutDate;
     private double totalCost;
     private String status;          // booked | cancelled
+    private String roomType;        // type of the room when it was booked; may be null
 
     public Reservation(int id, String customerName, int roomId,
                        String checkinDate, String checkoutDate,
@@ -19,6 +20,13 @@ public class Reservation {
         this.status = status;
     }
 
+    public Reservation(int id, String customerName, int roomId,
+                       String checkinDate, String checkoutDate,
+                       double totalCost, String status, String roomType) {
+        this(id, customerName, roomId, checkinDate, checkoutDate, totalCost, status);
+        this.roomType = roomType;
+    }
+
     // getters (add more if needed)
     public int getId()            { return id; }
     public String getCustomerName(){ return customerName; }
@@ -27,4 +35,5 @@ public class Reservation {
     public String getCheckoutDate(){ return checkoutDate; }
     public double getTotalCost()  { return totalCost; }
     public String getStatus()     { return status; }
+    public String getRoomType()   { return roomType; }
 }
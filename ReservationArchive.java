@@ -0,0 +1,315 @@
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.function.Consumer;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Cold store for reservations that no longer affect availability. Rows are
+ * packed into gzip-compressed blocks of up to a few thousand reservations in
+ * a separate SQLite file, each block labelled with its id and date range so
+ * lookups only unpack the blocks that can match. archived_ids maps every
+ * reservation id to the one block holding it, so appending a row again
+ * (after a hot-table delete that never committed) replaces the old copy.
+ */
+public class ReservationArchive implements AutoCloseable {
+
+    private final Connection conn;
+
+    public ReservationArchive(String url) throws SQLException {
+        conn = DBConnection.connect(url);
+        if (conn == null) throw new SQLException("Cannot open archive " + url);
+        try (Statement st = conn.createStatement()) {
+            int version;
+            try (ResultSet rs = st.executeQuery("PRAGMA user_version")) {
+                version = rs.next() ? rs.getInt(1) : 0;
+            }
+            if (version < 1) {
+                st.execute("""
+                    CREATE TABLE IF NOT EXISTS archive_blocks (
+                        block_id INTEGER PRIMARY KEY AUTOINCREMENT,
+                        min_id INTEGER, max_id INTEGER,
+                        min_day INTEGER, max_day INTEGER,
+                        row_count INTEGER,
+                        payload BLOB
+                    );
+                """);
+                st.execute("CREATE INDEX IF NOT EXISTS idx_blocks_ids ON archive_blocks (min_id, max_id)");
+                st.execute("PRAGMA user_version = 1");
+            }
+            if (version < 2) indexIds(st);
+        }
+    }
+
+    /** Builds archived_ids from the blocks, keeping only the newest copy of a duplicated id. */
+    private void indexIds(Statement st) throws SQLException {
+        st.execute("BEGIN IMMEDIATE");
+        try {
+            st.execute("CREATE TABLE IF NOT EXISTS archived_ids (id INTEGER PRIMARY KEY, block_id INTEGER NOT NULL)");
+            Map<Integer, Long> owner = new HashMap<>();
+            Map<Long, Set<Integer>> stale = new HashMap<>();
+            try (ResultSet rs = st.executeQuery("SELECT block_id, payload FROM archive_blocks ORDER BY block_id")) {
+                while (rs.next()) {
+                    long block = rs.getLong("block_id");
+                    for (Reservation r : decode(rs.getBytes("payload"))) {
+                        Long prev = owner.put(r.getId(), block);
+                        if (prev != null) stale.computeIfAbsent(prev, k -> new HashSet<>()).add(r.getId());
+                    }
+                }
+            }
+            dropRows(stale);
+            try (PreparedStatement p = conn.prepareStatement("INSERT OR REPLACE INTO archived_ids (id, block_id) VALUES (?, ?)")) {
+                for (Map.Entry<Integer, Long> e : owner.entrySet()) {
+                    p.setInt(1, e.getKey());
+                    p.setLong(2, e.getValue());
+                    p.addBatch();
+                }
+                p.executeBatch();
+            }
+            st.execute("PRAGMA user_version = 2");
+            st.execute("COMMIT");
+        } catch (SQLException e) {
+            st.execute("ROLLBACK");
+            throw e;
+        }
+    }
+
+    /** Removes the given ids from their blocks, deleting blocks left empty. */
+    private void dropRows(Map<Long, Set<Integer>> idsByBlock) throws SQLException {
+        if (idsByBlock.isEmpty()) return;
+        try (PreparedStatement get = conn.prepareStatement("SELECT payload FROM archive_blocks WHERE block_id = ?");
+             PreparedStatement put = conn.prepareStatement(
+                     "UPDATE archive_blocks SET payload = ?, row_count = ? WHERE block_id = ?");
+             PreparedStatement del = conn.prepareStatement("DELETE FROM archive_blocks WHERE block_id = ?")) {
+            for (Map.Entry<Long, Set<Integer>> e : idsByBlock.entrySet()) {
+                get.setLong(1, e.getKey());
+                List<Reservation> keep = new ArrayList<>();
+                try (ResultSet rs = get.executeQuery()) {
+                    if (!rs.next()) continue;
+                    for (Reservation r : decode(rs.getBytes(1)))
+                        if (!e.getValue().contains(r.getId())) keep.add(r);
+                }
+                if (keep.isEmpty()) {
+                    del.setLong(1, e.getKey());
+                    del.executeUpdate();
+                } else {
+                    put.setBytes(1, encode(keep));         // id and day bounds still cover what is left
+                    put.setInt(2, keep.size());
+                    put.setLong(3, e.getKey());
+                    put.executeUpdate();
+                }
+            }
+        } catch (IOException e) {
+            throw new SQLException("Archive encode failed: " + e.getMessage(), e);
+        }
+    }
+
+    /** Archive file that sits next to a hot database: hotel.db -> hotel.archive.db. */
+    public static String urlFor(String hotUrl) {
+        return hotUrl.endsWith(".db") ? hotUrl.substring(0, hotUrl.length() - 3) + ".archive.db"
+                                      : hotUrl + ".archive";
+    }
+
+    /**
+     * Stores {@code rows} (ordered by id) as one compressed block. A row
+     * already archived is taken out of its old block, so each id is held
+     * once however often it is appended.
+     */
+    public synchronized void append(List<Reservation> rows) throws SQLException {
+        if (rows.isEmpty()) return;
+        long minDay = Long.MAX_VALUE, maxDay = Long.MIN_VALUE;
+        for (Reservation r : rows) {
+            minDay = Math.min(minDay, day(r.getCheckinDate(), Long.MAX_VALUE));
+            maxDay = Math.max(maxDay, day(r.getCheckoutDate(), Long.MIN_VALUE));
+        }
+        String sql = """
+            INSERT INTO archive_blocks (min_id, max_id, min_day, max_day, row_count, payload)
+            VALUES (?, ?, ?, ?, ?, ?)
+        """;
+        int minId = rows.get(0).getId(), maxId = rows.get(rows.size() - 1).getId();
+        Set<Integer> ids = new HashSet<>();
+        for (Reservation r : rows) ids.add(r.getId());
+        try (Statement tx = conn.createStatement()) {
+            tx.execute("BEGIN IMMEDIATE");
+            try {
+                Map<Long, Set<Integer>> stale = new HashMap<>();
+                try (PreparedStatement p = conn.prepareStatement(
+                        "SELECT id, block_id FROM archived_ids WHERE id BETWEEN ? AND ?")) {
+                    p.setInt(1, minId);
+                    p.setInt(2, maxId);
+                    try (ResultSet rs = p.executeQuery()) {
+                        while (rs.next()) {
+                            if (ids.contains(rs.getInt(1)))
+                                stale.computeIfAbsent(rs.getLong(2), k -> new HashSet<>()).add(rs.getInt(1));
+                        }
+                    }
+                }
+                dropRows(stale);
+
+                long block;
+                try (PreparedStatement p = conn.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
+                    p.setInt(1, minId);
+                    p.setInt(2, maxId);
+                    p.setLong(3, minDay);
+                    p.setLong(4, maxDay);
+                    p.setInt(5, rows.size());
+                    p.setBytes(6, encode(rows));
+                    p.executeUpdate();
+                    try (ResultSet keys = p.getGeneratedKeys()) {
+                        if (!keys.next()) throw new SQLException("No block id returned");
+                        block = keys.getLong(1);
+                    }
+                }
+                try (PreparedStatement p = conn.prepareStatement(
+                        "INSERT OR REPLACE INTO archived_ids (id, block_id) VALUES (?, ?)")) {
+                    for (Reservation r : rows) {
+                        p.setInt(1, r.getId());
+                        p.setLong(2, block);
+                        p.addBatch();
+                    }
+                    p.executeBatch();
+                }
+                tx.execute("COMMIT");
+            } catch (SQLException | IOException e) {
+                tx.execute("ROLLBACK");
+                throw e;
+            }
+        } catch (IOException e) {
+            throw new SQLException("Archive encode failed: " + e.getMessage(), e);
+        }
+    }
+
+    /** The archived reservation with this id, or null. */
+    public synchronized Reservation find(int id) throws SQLException {
+        String q = "SELECT payload FROM archive_blocks WHERE min_id <= ? AND max_id >= ?";
+        try (PreparedStatement p = conn.prepareStatement(q)) {
+            p.setInt(1, id);
+            p.setInt(2, id);
+            try (ResultSet rs = p.executeQuery()) {
+                while (rs.next()) {
+                    for (Reservation r : decode(rs.getBytes("payload")))
+                        if (r.getId() == id) return r;
+                }
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Up to {@code limit} archived reservations matching {@code q} with
+     * id > afterId, in id order. Blocks are visited by their lowest id and
+     * the scan stops once no later block can beat what was found.
+     */
+    public synchronized List<Reservation> find(BookingQuery q, int afterId, int limit) throws SQLException {
+        TreeMap<Integer, Reservation> best = new TreeMap<>();
+        String sql = "SELECT min_id, min_day, max_day, payload FROM archive_blocks WHERE max_id > ? ORDER BY min_id";
+        try (PreparedStatement p = conn.prepareStatement(sql)) {
+            p.setInt(1, afterId);
+            try (ResultSet rs = p.executeQuery()) {
+                while (rs.next()) {
+                    if (best.size() >= limit && rs.getInt("min_id") > best.lastKey()) break;
+                    if (q.getTo() != null && rs.getLong("min_day") >= q.getTo().toEpochDay()) continue;
+                    if (q.getFrom() != null && rs.getLong("max_day") <= q.getFrom().toEpochDay()) continue;
+                    for (Reservation r : decode(rs.getBytes("payload"))) {
+                        if (r.getId() <= afterId || !matches(q, r)) continue;
+                        best.put(r.getId(), r);
+                        if (best.size() > limit) best.pollLastEntry();
+                    }
+                }
+            }
+        }
+        return new ArrayList<>(best.values());
+    }
+
+    /** Streams every archived reservation to {@code sink}. */
+    public synchronized void forEach(Consumer<Reservation> sink) throws SQLException {
+        try (Statement st = conn.createStatement();
+             ResultSet rs = st.executeQuery("SELECT payload FROM archive_blocks ORDER BY min_id")) {
+            while (rs.next()) decode(rs.getBytes("payload")).forEach(sink);
+        }
+    }
+
+    private static boolean matches(BookingQuery q, Reservation r) {
+        if (q.getStatus() != null && !q.getStatus().equals(r.getStatus())) return false;
+        if (q.getRoomId() != null && q.getRoomId() != r.getRoomId()) return false;
+        if (q.getTo() != null && day(r.getCheckinDate(), Long.MAX_VALUE) >= q.getTo().toEpochDay()) return false;
+        if (q.getFrom() != null && day(r.getCheckoutDate(), Long.MIN_VALUE) <= q.getFrom().toEpochDay()) return false;
+        return true;
+    }
+
+    private static long day(String yyyyMMdd, long fallback) {
+        try { return LocalDate.parse(yyyyMMdd).toEpochDay(); }
+        catch (Exception e) { return fallback; }
+    }
+
+    /* ---------- Block encoding ---------- */
+    // a block opens with its row count, or with -FORMAT then the count for later layouts
+    private static final int FORMAT = 2;                 // 2: rows end with the booked room type
+
+    private static byte[] encode(List<Reservation> rows) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (DataOutputStream out = new DataOutputStream(new GZIPOutputStream(bytes))) {
+            out.writeInt(-FORMAT);
+            out.writeInt(rows.size());
+            for (Reservation r : rows) {
+                out.writeInt(r.getId());
+                out.writeUTF(nz(r.getCustomerName()));
+                out.writeInt(r.getRoomId());
+                out.writeUTF(nz(r.getCheckinDate()));
+                out.writeUTF(nz(r.getCheckoutDate()));
+                out.writeDouble(r.getTotalCost());
+                out.writeUTF(nz(r.getStatus()));
+                out.writeUTF(nz(r.getRoomType()));
+            }
+        }
+        return bytes.toByteArray();
+    }
+
+    private static List<Reservation> decode(byte[] block) throws SQLException {
+        try (DataInputStream in = new DataInputStream(new GZIPInputStream(new ByteArrayInputStream(block)))) {
+            int n = in.readInt();
+            int format = n < 0 ? -n : 1;
+            if (n < 0) n = in.readInt();
+            List<Reservation> rows = new ArrayList<>(n);
+            for (int i = 0; i < n; i++) {
+                int id = in.readInt();
+                String name = in.readUTF();
+                int roomId = in.readInt();
+                String checkin = in.readUTF(), checkout = in.readUTF();
+                double cost = in.readDouble();
+                String status = in.readUTF();
+                String type = format >= 2 ? in.readUTF() : "";
+                rows.add(new Reservation(id, name, roomId, checkin, checkout, cost, status,
+                                         type.isEmpty() ? null : type));
+            }
+            return rows;
+        } catch (IOException e) {
+            throw new SQLException("Corrupt archive block: " + e.getMessage(), e);
+        }
+    }
+
+    private static String nz(String s) { return s == null ? "" : s; }
+
+    @Override
+    public synchronized void close() {
+        try {
+            conn.close();
+        } catch (SQLException ignored) { }
+    }
+}
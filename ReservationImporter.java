@@ -0,0 +1,196 @@
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Loads reservations from a CSV or NDJSON file into Hotel.bulkBook.
+ * CSV columns: customer_name,room_id,checkin,checkout, or any order named
+ * by a header line (so exportBookings output loads back); fields may be
+ * quoted. NDJSON holds one object per line with the same keys, as
+ * exportBookings writes them. Dates may be YYYY-MM-DD or DD-MM-YYYY;
+ * rows whose status is present and not "booked" are rejected.
+ */
+public class ReservationImporter {
+
+    private static final DateTimeFormatter USER_FMT =
+            DateTimeFormatter.ofPattern("dd-MM-yyyy");
+
+    /** Picks the loader by extension: .ndjson, .jsonl and .json are NDJSON, anything else CSV. */
+    public static List<BookingResult> importFile(Hotel hotel, Path file) throws IOException {
+        String name = file.getFileName().toString().toLowerCase(Locale.ROOT);
+        return name.endsWith(".ndjson") || name.endsWith(".jsonl") || name.endsWith(".json")
+                ? importJson(hotel, file) : importCsv(hotel, file);
+    }
+
+    /** Results are numbered by the line each record starts on; malformed records are rejected without touching the DB. */
+    public static List<BookingResult> importCsv(Hotel hotel, Path file) throws IOException {
+        List<BookingResult> results = new ArrayList<>();
+        List<BookingRequest> requests = new ArrayList<>();
+        List<Integer> lines = new ArrayList<>();
+        int[] cols = {0, 1, 2, 3, -1};                 // name, room, checkin, checkout, status
+        int width = 4;
+
+        try (BufferedReader br = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            String line;
+            int lineNo = 0;
+            while ((line = br.readLine()) != null) {
+                lineNo++;
+                int start = lineNo;
+                // a quoted field may hold line breaks: keep reading until the quotes balance
+                while (!balanced(line)) {
+                    String more = br.readLine();
+                    if (more == null) break;
+                    line += "\n" + more;
+                    lineNo++;
+                }
+                if (line.isBlank()) continue;
+                List<String> f = splitCsv(line);
+                if (f == null) {
+                    results.add(BookingResult.rejected(start, "unterminated quote"));
+                    continue;
+                }
+                if (start == 1 && f.stream().anyMatch(h -> h.trim().equalsIgnoreCase("customer_name"))) {
+                    cols = headerColumns(f);
+                    if (cols == null) {
+                        results.add(BookingResult.rejected(start, "header lacks customer_name, room_id, checkin or checkout"));
+                        break;
+                    }
+                    width = f.size();
+                    continue;
+                }
+                if (f.size() != width) {
+                    results.add(BookingResult.rejected(start, "expected " + width + " columns"));
+                    continue;
+                }
+                add(requests, lines, results, start, f.get(cols[0]), f.get(cols[1]),
+                    f.get(cols[2]), f.get(cols[3]), cols[4] < 0 ? null : f.get(cols[4]));
+            }
+        }
+        return book(hotel, requests, lines, results);
+    }
+
+    /** One JSON object per line; results are numbered by file line. */
+    public static List<BookingResult> importJson(Hotel hotel, Path file) throws IOException {
+        List<BookingResult> results = new ArrayList<>();
+        List<BookingRequest> requests = new ArrayList<>();
+        List<Integer> lines = new ArrayList<>();
+
+        try (BufferedReader br = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            String line;
+            int lineNo = 0;
+            while ((line = br.readLine()) != null) {
+                lineNo++;
+                if (line.isBlank()) continue;
+                Map<String, String> o;
+                try {
+                    o = Json.parseObject(line);
+                } catch (IllegalArgumentException e) {
+                    results.add(BookingResult.rejected(lineNo, "bad JSON: " + e.getMessage()));
+                    continue;
+                }
+                add(requests, lines, results, lineNo, o.get("customer_name"), o.get("room_id"),
+                    either(o, "checkin_date", "checkin"), either(o, "checkout_date", "checkout"), o.get("status"));
+            }
+        }
+        return book(hotel, requests, lines, results);
+    }
+
+    /* ---------- Shared row handling ---------- */
+    private static void add(List<BookingRequest> requests, List<Integer> lines, List<BookingResult> results,
+                            int lineNo, String name, String room, String in, String out, String status) {
+        if (name == null || room == null || in == null || out == null) {
+            results.add(BookingResult.rejected(lineNo, "missing customer_name, room_id, checkin or checkout"));
+            return;
+        }
+        if (status != null && !status.isBlank() && !status.trim().equalsIgnoreCase("booked")) {
+            results.add(BookingResult.rejected(lineNo, "status " + status.trim()));
+            return;
+        }
+        try {
+            requests.add(new BookingRequest(name.trim(), Integer.parseInt(room.trim()),
+                                            parseDate(in), parseDate(out)));
+            lines.add(lineNo);
+        } catch (NumberFormatException | DateTimeParseException e) {
+            results.add(BookingResult.rejected(lineNo, "bad room id or date"));
+        }
+    }
+
+    private static List<BookingResult> book(Hotel hotel, List<BookingRequest> requests,
+                                            List<Integer> lines, List<BookingResult> results) {
+        for (BookingResult r : hotel.bulkBook(requests)) {
+            int lineNo = lines.get(r.getRow());
+            results.add(r.isAccepted() ? BookingResult.accepted(lineNo, r.getReservation())
+                      : r.isError() ? BookingResult.failed(lineNo, r.getReason())
+                                    : BookingResult.rejected(lineNo, r.getReason()));
+        }
+        results.sort((a, b) -> Integer.compare(a.getRow(), b.getRow()));
+        return results;
+    }
+
+    private static LocalDate parseDate(String s) {
+        s = s.trim();
+        return s.length() == 10 && s.charAt(4) == '-' ? LocalDate.parse(s) : LocalDate.parse(s, USER_FMT);
+    }
+
+    private static String either(Map<String, String> o, String key, String alt) {
+        return o.containsKey(key) ? o.get(key) : o.get(alt);
+    }
+
+    /* ---------- CSV fields ---------- */
+    /** Splits one record on commas outside quotes, undoing "" escapes; null if a quote is left open. */
+    private static List<String> splitCsv(String line) {
+        List<String> out = new ArrayList<>();
+        StringBuilder cur = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char ch = line.charAt(i);
+            if (quoted) {
+                if (ch != '"') cur.append(ch);
+                else if (i + 1 < line.length() && line.charAt(i + 1) == '"') { cur.append('"'); i++; }
+                else quoted = false;
+            } else if (ch == '"') {
+                quoted = true;
+            } else if (ch == ',') {
+                out.add(cur.toString());
+                cur.setLength(0);
+            } else {
+                cur.append(ch);
+            }
+        }
+        if (quoted) return null;
+        out.add(cur.toString());
+        return out;
+    }
+
+    private static boolean balanced(String line) {
+        int quotes = 0;
+        for (int i = 0; i < line.length(); i++) if (line.charAt(i) == '"') quotes++;
+        return quotes % 2 == 0;
+    }
+
+    /** Column positions of name, room, checkin, checkout (and status, if any) in a header, or null if one is missing. */
+    private static int[] headerColumns(List<String> header) {
+        int[] cols = {-1, -1, -1, -1, -1};
+        for (int i = 0; i < header.size(); i++) {
+            switch (header.get(i).trim().toLowerCase(Locale.ROOT)) {
+                case "customer_name" -> cols[0] = i;
+                case "room_id" -> cols[1] = i;
+                case "checkin", "checkin_date" -> cols[2] = i;
+                case "checkout", "checkout_date" -> cols[3] = i;
+                case "status" -> cols[4] = i;
+                default -> { }
+            }
+        }
+        for (int c = 0; c < 4; c++) if (cols[c] < 0) return null;
+        return cols;
+    }
+}
@@ -0,0 +1,16 @@
+/** One row of a date-range availability search. */
+public class RoomAvailability {
+    private final Room room;
+    private final boolean free;
+
+    public RoomAvailability(Room room, boolean free) {
+        this.room = room;
+        this.free = free;
+    }
+
+    public Room getRoom()      { return room; }
+    public int getRoomId()     { return room.getRoomId(); }
+    public String getType()    { return room.getType(); }
+    public double getPrice()   { return room.getPrice(); }
+    public boolean isFree()    { return free; }
+}
@@ -0,0 +1,90 @@
+import java.sql.SQLException;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Read-through cache of Room rows keyed by id, bounded with LRU eviction.
+ * The full room list is cached too while it fits. Room type and price
+ * change rarely, so entries live until invalidate() is called by whatever
+ * writes the rooms table.
+ */
+public class RoomCatalog {
+
+    /** Where cache misses are read from. */
+    public interface Loader {
+        Room load(int roomId) throws SQLException;        // null when no such room
+        List<Room> loadAll() throws SQLException;         // ordered by room_id
+    }
+
+    private final Loader loader;
+    private final int capacity;
+    private final Map<Integer, Room> byId;
+    private volatile List<Room> all;
+    // bumped by invalidate(), under the byId lock; a load that started in
+    // an older generation may hold pre-update rows and is not cached
+    private long generation;
+
+    public RoomCatalog(Loader loader, int capacity) {
+        this.loader = loader;
+        this.capacity = capacity;
+        this.byId = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Integer, Room> eldest) {
+                return size() > RoomCatalog.this.capacity;
+            }
+        };
+    }
+
+    public Room get(int roomId) throws SQLException {
+        long gen;
+        synchronized (byId) {
+            Room r = byId.get(roomId);
+            if (r != null) return r;
+            gen = generation;
+        }
+        Room r = loader.load(roomId);                   // outside the lock; a duplicate load is harmless
+        if (r != null) {
+            synchronized (byId) {
+                if (generation == gen) byId.put(roomId, r);
+            }
+        }
+        return r;
+    }
+
+    /** Every room ordered by id; cached only while it fits within the capacity. */
+    public List<Room> all() throws SQLException {
+        List<Room> rooms = all;
+        if (rooms != null) return rooms;
+        long gen;
+        synchronized (byId) { gen = generation; }
+        rooms = List.copyOf(loader.loadAll());
+        if (rooms.size() <= capacity) {
+            synchronized (byId) {
+                if (generation == gen) {
+                    for (Room r : rooms) byId.put(r.getRoomId(), r);
+                    all = rooms;
+                }
+            }
+        }
+        return rooms;
+    }
+
+    /** Seeds the cache with a full room list, e.g. from a startup snapshot. */
+    public void prime(List<Room> rooms) {
+        rooms = List.copyOf(rooms);
+        if (rooms.size() > capacity) return;
+        synchronized (byId) {
+            for (Room r : rooms) byId.put(r.getRoomId(), r);
+            all = rooms;
+        }
+    }
+
+    public void invalidate(int roomId) {
+        synchronized (byId) {
+            byId.remove(roomId);
+            all = null;
+            generation++;
+        }
+    }
+}
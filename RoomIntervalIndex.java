@@ -0,0 +1,106 @@
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+
+/**
+ * In-memory index of booked stays, one sorted interval set per room.
+ * Stays are half-open [checkin, checkout) ranges in epoch days, so a
+ * checkout on the same day as the next checkin does not clash.
+ *
+ * Stays are ordered by (checkin, id), so two with the same checkin day
+ * are both kept. The fast overlap check relies on a room's stays not
+ * clashing with each other; a room that was loaded with clashing stays
+ * (old data) is remembered and checked by a scan instead.
+ */
+public class RoomIntervalIndex {
+
+    /** One booked stay as held in the index. */
+    public static final class Stay {
+        public final int id;
+        public final int roomId;
+        public final long inDay;
+        public final long outDay;
+        public final double total;
+        public final String type;       // room type when booked, so cancels reverse the same report cells
+
+        Stay(int id, int roomId, long inDay, long outDay, double total, String type) {
+            this.id = id;
+            this.roomId = roomId;
+            this.inDay = inDay;
+            this.outDay = outDay;
+            this.total = total;
+            this.type = type;
+        }
+    }
+
+    private static final Comparator<Stay> BY_CHECKIN =
+            Comparator.comparingLong((Stay s) -> s.inDay).thenComparingInt(s -> s.id);
+
+    // room_id -> stays ordered by checkin day, then id
+    private final Map<Integer, ConcurrentSkipListSet<Stay>> byRoom = new ConcurrentHashMap<>();
+    private final Map<Integer, Stay> byId = new ConcurrentHashMap<>();
+    // rooms holding stays that overlap each other
+    private final Set<Integer> clashing = ConcurrentHashMap.newKeySet();
+
+    public boolean add(int id, int roomId, LocalDate in, LocalDate out) {
+        return add(id, roomId, in.toEpochDay(), out.toEpochDay(), 0, null);
+    }
+
+    /**
+     * Indexes a stay, replacing any earlier one with the same id. Returns
+     * false when it overlaps a stay already indexed for the room; it is
+     * kept anyway, and the room is checked by scan from then on. A stay
+     * must cover at least one night.
+     */
+    public boolean add(int id, int roomId, long inDay, long outDay, double total, String type) {
+        if (outDay <= inDay)
+            throw new IllegalArgumentException("Stay " + id + " checks out on or before its checkin");
+        Stay s = new Stay(id, roomId, inDay, outDay, total, type);
+        remove(id);
+        boolean clash = overlaps(roomId, inDay, outDay);
+        if (clash) clashing.add(roomId);
+        byRoom.computeIfAbsent(roomId, k -> new ConcurrentSkipListSet<>(BY_CHECKIN)).add(s);
+        byId.put(id, s);
+        return !clash;
+    }
+
+    /** Drops a stay by reservation id; returns it, or null if it was not indexed. */
+    public Stay remove(int id) {
+        Stay s = byId.remove(id);
+        if (s == null) return null;
+        ConcurrentSkipListSet<Stay> stays = byRoom.get(s.roomId);
+        if (stays != null) stays.remove(s);
+        return s;
+    }
+
+    public Stay get(int id) { return byId.get(id); }
+
+    /** Every indexed stay, in no particular order. */
+    public Collection<Stay> all() { return byId.values(); }
+
+    /** True when [in, out) clashes with any booked stay of the room. O(log n) unless the room is clashing. */
+    public boolean overlaps(int roomId, LocalDate in, LocalDate out) {
+        return overlaps(roomId, in.toEpochDay(), out.toEpochDay());
+    }
+
+    public boolean overlaps(int roomId, long inDay, long outDay) {
+        ConcurrentSkipListSet<Stay> stays = byRoom.get(roomId);
+        if (stays == null) return false;
+        // sorts after every stay starting before our checkout
+        Stay bound = new Stay(Integer.MIN_VALUE, roomId, outDay, outDay, 0, null);
+        if (clashing.contains(roomId)) {
+            for (Stay s : stays.headSet(bound)) if (s.outDay > inDay) return true;
+            return false;
+        }
+        // the last stay starting before our checkout is the only candidate
+        Stay last = stays.lower(bound);
+        return last != null && last.outDay > inDay;
+    }
+
+    /** Rooms that hold overlapping stays, e.g. double bookings from old data. */
+    public Set<Integer> clashingRooms() { return Set.copyOf(clashing); }
+}
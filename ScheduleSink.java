@@ -0,0 +1,10 @@
+import java.io.IOException;
+
+/**
+ * Receives a room schedule as it streams out of the database: each room
+ * in id order, followed by that room's bookings in checkin order.
+ */
+public interface ScheduleSink {
+    void room(Room room) throws IOException;
+    void booking(Room room, int reservationId, String status, String checkinDate, String checkoutDate) throws IOException;
+}
@@ -0,0 +1,129 @@
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Ordered schema steps for the hotel database. PRAGMA user_version holds
+ * how many have been applied, so an up-to-date file costs one pragma read
+ * at startup. Pending steps run in a single write transaction; add new
+ * steps at the end and never edit one that has shipped.
+ */
+public final class SchemaMigrations {
+
+    private interface Step {
+        void apply(Statement st) throws SQLException;
+    }
+
+    private static final Step[] STEPS = {
+        // 1: base tables and the three default rooms
+        st -> {
+            st.execute("""
+                CREATE TABLE IF NOT EXISTS rooms (
+                    room_id INTEGER PRIMARY KEY AUTOINCREMENT,
+                    type TEXT,
+                    price REAL,
+                    is_available INTEGER DEFAULT 1
+                );
+            """);
+            st.execute("""
+                CREATE TABLE IF NOT EXISTS reservations (
+                    id INTEGER PRIMARY KEY AUTOINCREMENT,
+                    customer_name TEXT,
+                    room_id INTEGER,
+                    payment_status TEXT
+                );
+            """);
+            st.executeUpdate("""
+                INSERT INTO rooms (type, price, is_available)
+                SELECT * FROM (VALUES ('Standard',1000,1), ('Deluxe',2000,1), ('Suite',3000,1))
+                WHERE NOT EXISTS (SELECT 1 FROM rooms)
+            """);
+        },
+        // 2: booking columns; files from before versioning may have some already
+        st -> {
+            Set<String> have = new HashSet<>();
+            try (ResultSet rs = st.executeQuery("PRAGMA table_info(reservations)")) {
+                while (rs.next()) have.add(rs.getString("name").toLowerCase());
+            }
+            String[][] columns = {
+                {"status", "TEXT DEFAULT 'booked'"},
+                {"checkin_date", "TEXT"},
+                {"checkout_date", "TEXT"},
+                {"total_cost", "REAL"},
+                {"checkin_day", "INTEGER"},
+                {"checkout_day", "INTEGER"}
+            };
+            for (String[] col : columns) {
+                if (!have.contains(col[0]))
+                    st.execute("ALTER TABLE reservations ADD COLUMN " + col[0] + " " + col[1]);
+            }
+        },
+        // 3: checkin_day/checkout_day mirror the TEXT dates as epoch days so
+        //    range predicates can use an index instead of date() on every row
+        st -> {
+            st.executeUpdate("""
+                UPDATE reservations
+                SET checkin_day  = CAST(julianday(checkin_date)  - 2440587.5 AS INTEGER),
+                    checkout_day = CAST(julianday(checkout_date) - 2440587.5 AS INTEGER)
+                WHERE (checkin_day IS NULL OR checkout_day IS NULL)
+                  AND checkin_date IS NOT NULL AND checkout_date IS NOT NULL
+            """);
+            st.execute("""
+                CREATE INDEX IF NOT EXISTS idx_res_room_status_days
+                ON reservations (room_id, status, checkin_day, checkout_day)
+            """);
+        },
+        // 4: small key/value table, used to validate startup snapshots
+        st -> st.execute("CREATE TABLE IF NOT EXISTS hotel_meta (key TEXT PRIMARY KEY, value TEXT)"),
+        // 5: rooms JOIN reservations ordered by room and checkin, without a sort
+        st -> st.execute("CREATE INDEX IF NOT EXISTS idx_res_room_checkin ON reservations (room_id, checkin_day)"),
+        // 6: room type at booking time, so report totals survive a later retype
+        st -> {
+            st.execute("ALTER TABLE reservations ADD COLUMN room_type TEXT");
+            st.executeUpdate("""
+                UPDATE reservations
+                SET room_type = (SELECT type FROM rooms WHERE rooms.room_id = reservations.room_id)
+            """);
+        }
+    };
+
+    /** Schema version this build writes. */
+    public static final int LATEST = STEPS.length;
+
+    private SchemaMigrations() { }
+
+    /** Brings the database behind {@code c} up to LATEST; returns steps applied. */
+    public static int migrate(Connection c) throws SQLException {
+        try (Statement st = c.createStatement()) {
+            int version = userVersion(st);
+            if (version == LATEST) return 0;
+            if (version > LATEST)
+                throw new SQLException("Database schema v" + version + " is newer than this build (v" + LATEST + ")");
+
+            st.execute("BEGIN IMMEDIATE");         // one migrator at a time
+            try {
+                version = userVersion(st);         // another process may have finished first
+                if (version >= LATEST) {
+                    st.execute("COMMIT");
+                    return 0;
+                }
+                for (int i = version; i < LATEST; i++) STEPS[i].apply(st);
+                st.execute("PRAGMA user_version = " + LATEST);
+                st.execute("COMMIT");
+                return LATEST - version;
+            } catch (SQLException e) {
+                st.execute("ROLLBACK");
+                throw e;
+            }
+        }
+    }
+
+    private static int userVersion(Statement st) throws SQLException {
+        try (ResultSet rs = st.executeQuery("PRAGMA user_version")) {
+            return rs.next() ? rs.getInt(1) : 0;
+        }
+    }
+}
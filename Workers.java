@@ -0,0 +1,27 @@
+import java.lang.reflect.Method;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/** Executor factory shared by the concurrent parts of the app. */
+public final class Workers {
+
+    private Workers() { }
+
+    /**
+     * One virtual thread per task when the JDK has them (21+), otherwise a
+     * cached pool of daemon platform threads. Looked up reflectively so the
+     * code still compiles and runs on older JDKs.
+     */
+    public static ExecutorService newPerTaskExecutor() {
+        try {
+            Method m = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+            return (ExecutorService) m.invoke(null);
+        } catch (ReflectiveOperationException e) {
+            return Executors.newCachedThreadPool(r -> {
+                Thread t = new Thread(r, "hotel-worker");
+                t.setDaemon(true);
+                return t;
+            });
+        }
+    }
+}
@@ -0,0 +1,174 @@
+package bench;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * JMH benchmarks for the Hotel hot paths against a seeded throw-away
+ * SQLite file, one per fork.
+ *
+ *   mvn -f benchmarks/pom.xml package
+ *   java -jar benchmarks/target/benchmarks.jar [-p rooms=500 -p reservations=50000 -p spread=730]
+ *
+ * Query ranges are drawn before measurement, so the timed region is the
+ * call alone. JMH refuses benchmarks in the unnamed package, where Hotel
+ * lives, so the calls go through constant method handles, which the JIT
+ * inlines like direct calls.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(2)
+@State(Scope.Benchmark)
+public class HotelJmh {
+
+    private static final LocalDate BASE = LocalDate.of(2030, 1, 1);
+    private static final int INPUTS = 1 << 12;            // pre-drawn query ranges, cycled
+
+    private static final Class<?> HOTEL = type("Hotel");
+    private static final MethodHandle NEW_HOTEL = find(HOTEL, "<init>", void.class, String.class);
+    private static final MethodHandle CLOSE = find(HOTEL, "close", void.class);
+    private static final MethodHandle ADD_ROOM = find(HOTEL, "addRoom", type("Room"), String.class, double.class);
+    private static final MethodHandle BULK_BOOK = find(HOTEL, "bulkBook", List.class, List.class);
+    private static final MethodHandle NEW_REQUEST = find(type("BookingRequest"), "<init>", void.class,
+            String.class, int.class, LocalDate.class, LocalDate.class);
+    private static final MethodHandle OVERLAPS = find(HOTEL, "overlaps", boolean.class,
+            int.class, LocalDate.class, LocalDate.class);
+    private static final MethodHandle FIND_FREE = find(HOTEL, "findFreeRooms", List.class,
+            String.class, LocalDate.class, LocalDate.class);
+    private static final MethodHandle FIND_AVAILABILITY = find(HOTEL, "findAvailability", List.class,
+            LocalDate.class, LocalDate.class);
+    private static final MethodHandle BOOK = find(HOTEL, "bookRoomWithReceipt", type("Reservation"),
+            String.class, int.class, LocalDate.class, LocalDate.class);
+    private static final MethodHandle RESERVATION_ID = find(type("Reservation"), "getId", int.class);
+    private static final MethodHandle CANCEL = find(HOTEL, "cancelBooking", boolean.class, int.class);
+
+    @Param("500")
+    public int rooms;
+
+    @Param("50000")
+    public int reservations;
+
+    @Param("730")
+    public int spread;
+
+    private Path dir;
+    private Object hotel;
+    private int roomCount;
+    private final int[] roomIds = new int[INPUTS];
+    private final LocalDate[] ins = new LocalDate[INPUTS];
+    private final LocalDate[] outs = new LocalDate[INPUTS];
+    private int next;
+    private long futureDay;                               // past the seeded window, so new bookings never clash
+
+    @Setup(Level.Trial)
+    public void seed() throws Throwable {
+        dir = Files.createTempDirectory("hotel-jmh");
+        hotel = NEW_HOTEL.invoke("jdbc:sqlite:" + dir.resolve("bench.db"));
+        String[] types = {"Standard", "Deluxe", "Suite"};
+        for (int i = 0; i < rooms; i++) {
+            ADD_ROOM.invoke(hotel, types[i % types.length], 1000.0 * (1 + i % types.length));
+        }
+        roomCount = rooms + 3;                            // Hotel seeds three default rooms
+
+        Random rnd = new Random(42);
+        List<Object> batch = new ArrayList<>(reservations);
+        for (int i = 0; i < reservations; i++) {
+            LocalDate in = BASE.plusDays(rnd.nextInt(spread));
+            batch.add(NEW_REQUEST.invoke("guest" + i, 1 + rnd.nextInt(roomCount), in, in.plusDays(1 + rnd.nextInt(7))));
+        }
+        BULK_BOOK.invoke(hotel, batch);
+
+        for (int i = 0; i < INPUTS; i++) {
+            roomIds[i] = 1 + rnd.nextInt(roomCount);
+            ins[i] = BASE.plusDays(rnd.nextInt(spread));
+            outs[i] = ins[i].plusDays(1 + rnd.nextInt(7));
+        }
+        futureDay = BASE.plusDays(spread + 8).toEpochDay();
+    }
+
+    @TearDown(Level.Trial)
+    public void close() throws Throwable {
+        CLOSE.invoke(hotel);
+        try (var files = Files.list(dir)) {
+            for (Path f : (Iterable<Path>) files::iterator) Files.deleteIfExists(f);
+        }
+        Files.deleteIfExists(dir);
+    }
+
+    private int pick() {
+        return next = (next + 1) & (INPUTS - 1);
+    }
+
+    @Benchmark
+    public boolean overlaps() throws Throwable {
+        int i = pick();
+        return (boolean) OVERLAPS.invoke(hotel, roomIds[i], ins[i], outs[i]);
+    }
+
+    @Benchmark
+    public void findFreeRooms(Blackhole bh) throws Throwable {
+        int i = pick();
+        bh.consume((List<?>) FIND_FREE.invoke(hotel, "Deluxe", ins[i], outs[i]));
+    }
+
+    @Benchmark
+    public void findAvailability(Blackhole bh) throws Throwable {
+        int i = pick();
+        bh.consume((List<?>) FIND_AVAILABILITY.invoke(hotel, ins[i], outs[i]));
+    }
+
+    /** One booking on a fresh night, then its cancellation, so the dataset stays the same size. */
+    @Benchmark
+    public boolean bookAndCancel() throws Throwable {
+        int room = 1 + (next = (next + 1) % roomCount);
+        if (room == 1) futureDay++;
+        LocalDate in = LocalDate.ofEpochDay(futureDay);
+        Object r = BOOK.invoke(hotel, "bench", room, in, in.plusDays(1));
+        if (r == null) return false;
+        return (boolean) CANCEL.invoke(hotel, (int) RESERVATION_ID.invoke(r));
+    }
+
+    private static Class<?> type(String name) {
+        try {
+            return Class.forName(name);
+        } catch (ClassNotFoundException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    private static MethodHandle find(Class<?> owner, String name, Class<?> ret, Class<?>... params) {
+        try {
+            MethodHandles.Lookup lookup = MethodHandles.privateLookupIn(owner, MethodHandles.lookup());
+            MethodType type = MethodType.methodType(ret, params);
+            return name.equals("<init>") ? lookup.findConstructor(owner, type)
+                                         : lookup.findVirtual(owner, name, type);
+        } catch (ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+}